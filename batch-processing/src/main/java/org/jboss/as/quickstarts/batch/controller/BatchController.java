@@ -49,6 +49,8 @@ import javax.validation.constraints.Min;
 @Model
 public class BatchController {
 
+    private static final String[] JOB_NAMES = { "import-file", "import-file-partitioned" };
+
     @Inject
     private FacesContext facesContext;
 
@@ -63,6 +65,20 @@ public class BatchController {
     @Max(1000000)
     private Integer numRecords = 10;
 
+    @Min(1)
+    @Max(64)
+    private Integer partitions = 4;
+
+    // Either recordsReader or mappedRecordsReader (memory-mapped file)
+    private String reader = "recordsReader";
+
+    // Either contactsPersister (JPA) or jdbcContactsPersister (plain JDBC batch)
+    private String writer = "contactsPersister";
+
+    @Min(1)
+    @Max(10000)
+    private Integer itemCount = 3;
+
     public void generate() throws IOException {
         File tempFile = new File(System.getProperty("java.io.tmpdir"), fileName);
         try (BufferedWriter bos = new BufferedWriter(new FileWriter(tempFile, false))) {
@@ -106,10 +122,25 @@ public class BatchController {
         JobOperator jobOperator = BatchRuntime.getJobOperator();
         Properties jobParameters = new Properties();
         jobParameters.setProperty("fileName", getFileName());
+        jobParameters.setProperty("reader", getReader());
+        jobParameters.setProperty("writer", getWriter());
+        jobParameters.setProperty("itemCount", getItemCount().toString());
         long execID = jobOperator.start("import-file", jobParameters);
         facesContext.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, "New job execution #" + execID + " running. Importing file:" + getFileName(), null));
     }
 
+    public void startPartitionedImport() {
+        JobOperator jobOperator = BatchRuntime.getJobOperator();
+        Properties jobParameters = new Properties();
+        jobParameters.setProperty("fileName", getFileName());
+        jobParameters.setProperty("reader", getReader());
+        jobParameters.setProperty("writer", getWriter());
+        jobParameters.setProperty("itemCount", getItemCount().toString());
+        jobParameters.setProperty("partitions", getPartitions().toString());
+        long execID = jobOperator.start("import-file-partitioned", jobParameters);
+        facesContext.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, "New job execution #" + execID + " running with " + getPartitions() + " partitions. Importing file:" + getFileName(), null));
+    }
+
     public Set<JobData> getJobsExecution() {
         Set<JobData> jobsData = new TreeSet<JobData>(new Comparator<JobData>() {
 
@@ -120,36 +151,43 @@ public class BatchController {
         });
         Map<Long, JobExecution> jobIntances = new HashMap<>();
         JobOperator jobOperator = BatchRuntime.getJobOperator();
-        try {
-            List<JobInstance> instances = jobOperator.getJobInstances("import-file", 0, jobOperator.getJobInstanceCount("import-file"));
-            for (JobInstance ji : instances) {
-                List<JobExecution> executions = jobOperator.getJobExecutions(ji);
-                for (JobExecution jobExecution : executions) {
-                    // initialize the map if null
-                    if (jobIntances.get(ji.getInstanceId()) == null) {
-                        jobIntances.put(ji.getInstanceId(), jobExecution);
-                    }
-                    // Update the jobExecution if is newer
-                    JobExecution existing = jobIntances.get(ji.getInstanceId());
-                    if (jobExecution.getExecutionId() > existing.getExecutionId()) {
-                        jobIntances.put(ji.getInstanceId(), jobExecution);
-                    }
-                }
-            }
-            for (Long instaceId : jobIntances.keySet()) {
-                JobExecution jobExecution = jobIntances.get(instaceId);
-                JobInstance ji = jobOperator.getJobInstance(jobExecution.getExecutionId());
-                Properties parameters = jobOperator.getParameters(jobExecution.getExecutionId());
-                jobsData.add(new JobData(ji.getInstanceId(), jobExecution.getExecutionId(), ji.getJobName(), jobExecution.getCreateTime(), jobExecution.getEndTime(), jobExecution
-                    .getBatchStatus(), parameters, jobExecution.getExitStatus()));
+        for (String jobName : JOB_NAMES) {
+            try {
+                addJobsExecution(jobOperator, jobName, jobIntances);
+            } catch (NoSuchJobException e) {
+                // It's ok if when doesn't have any jobs yet to show
             }
-        } catch (NoSuchJobException e) {
-            // It's ok if when doesn't have any jobs yet to show
+        }
+        for (Long instaceId : jobIntances.keySet()) {
+            JobExecution jobExecution = jobIntances.get(instaceId);
+            JobInstance ji = jobOperator.getJobInstance(jobExecution.getExecutionId());
+            Properties parameters = jobOperator.getParameters(jobExecution.getExecutionId());
+            jobsData.add(new JobData(ji.getInstanceId(), jobExecution.getExecutionId(), ji.getJobName(), jobExecution.getCreateTime(), jobExecution.getEndTime(), jobExecution
+                .getBatchStatus(), parameters, jobExecution.getExitStatus()));
         }
 
         return jobsData;
     }
 
+    // Finds the latest execution of each instance of the specified job
+    private void addJobsExecution(JobOperator jobOperator, String jobName, Map<Long, JobExecution> jobIntances) {
+        List<JobInstance> instances = jobOperator.getJobInstances(jobName, 0, jobOperator.getJobInstanceCount(jobName));
+        for (JobInstance ji : instances) {
+            List<JobExecution> executions = jobOperator.getJobExecutions(ji);
+            for (JobExecution jobExecution : executions) {
+                // initialize the map if null
+                if (jobIntances.get(ji.getInstanceId()) == null) {
+                    jobIntances.put(ji.getInstanceId(), jobExecution);
+                }
+                // Update the jobExecution if is newer
+                JobExecution existing = jobIntances.get(ji.getInstanceId());
+                if (jobExecution.getExecutionId() > existing.getExecutionId()) {
+                    jobIntances.put(ji.getInstanceId(), jobExecution);
+                }
+            }
+        }
+    }
+
     public void restartJob(int executionId) {
         JobOperator jobOperator = BatchRuntime.getJobOperator();
         Properties jobParameters = jobOperator.getParameters(executionId);
@@ -166,6 +204,38 @@ public class BatchController {
         this.numRecords = numRecords;
     }
 
+    public Integer getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(Integer partitions) {
+        this.partitions = partitions;
+    }
+
+    public String getReader() {
+        return reader;
+    }
+
+    public void setReader(String reader) {
+        this.reader = reader;
+    }
+
+    public String getWriter() {
+        return writer;
+    }
+
+    public void setWriter(String writer) {
+        this.writer = writer;
+    }
+
+    public Integer getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(Integer itemCount) {
+        this.itemCount = itemCount;
+    }
+
     public boolean isGenerateWithError() {
         return generateWithError;
     }
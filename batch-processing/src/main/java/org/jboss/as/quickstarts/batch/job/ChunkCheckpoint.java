@@ -19,7 +19,11 @@ package org.jboss.as.quickstarts.batch.job;
 import java.io.Serializable;
 
 /**
- * This class controls the checkpoint for the {@link RecordsReader}
+ * This class controls the checkpoint for the {@link RecordsReader} and {@link MappedRecordsReader}
+ *
+ * Besides the number of lines read, it records the byte offset of the next line to read, so that a restart can seek
+ * straight to it. Checkpoints stored before the offset was added have an offset of 0, in such case the reader must skip
+ * the lines read instead.
  *
  */
 public class ChunkCheckpoint implements Serializable {
@@ -28,12 +32,27 @@ public class ChunkCheckpoint implements Serializable {
 
     private long lineNumber;
 
+    private long offset;
+
     public void increase() {
         lineNumber++;
     }
 
+    public void increase(long nextOffset) {
+        lineNumber++;
+        offset = nextOffset;
+    }
+
     public long getLineNumber() {
         return lineNumber;
     }
 
+    public long getOffset() {
+        return offset;
+    }
+
+    public boolean hasOffset() {
+        return offset > 0;
+    }
+
 }
@@ -0,0 +1,59 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.batch.job;
+
+import java.util.logging.Logger;
+
+import javax.annotation.Resource;
+import javax.batch.api.AbstractBatchlet;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.persistence.EntityManager;
+import javax.transaction.Status;
+import javax.transaction.UserTransaction;
+
+//This batchlet cleans the database before a partitioned import, since the partitions writers run concurrently and can't do it
+@Named("cleanDatabaseBatchlet")
+public class CleanDatabaseBatchlet extends AbstractBatchlet {
+
+    @Inject
+    private EntityManager entityManager;
+
+    @Inject
+    private Logger log;
+
+    // Batchlets do not run in a transaction
+    @Resource
+    private UserTransaction userTransaction;
+
+    @Override
+    public String process() throws Exception {
+        log.info("Cleaning the Database");
+        userTransaction.begin();
+        try {
+            entityManager.createQuery("DELETE FROM Contact c").executeUpdate();
+            userTransaction.commit();
+        } catch (Exception e) {
+            if (userTransaction.getStatus() != Status.STATUS_NO_TRANSACTION) {
+                userTransaction.rollback();
+            }
+            throw e;
+        }
+        return "CLEANED";
+    }
+
+}
@@ -20,6 +20,7 @@ import java.io.Serializable;
 import java.util.List;
 import java.util.logging.Logger;
 
+import javax.batch.api.BatchProperty;
 import javax.batch.api.chunk.AbstractItemWriter;
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -28,6 +29,7 @@ import javax.persistence.EntityManager;
 import org.jboss.as.quickstarts.batch.model.Contact;
 
 //This class will persist the contacts chunk at the database. It cleans the database if it's the first execution (no checkpoint)
+//The chunk is flushed once, so Hibernate sends the inserts in JDBC batches (see hibernate.jdbc.batch_size in persistence.xml)
 @Named("contactsPersister")
 public class ContactsPersister extends AbstractItemWriter {
 
@@ -37,11 +39,16 @@ public class ContactsPersister extends AbstractItemWriter {
     @Inject
     private Logger log;
 
+    // Set to false when partitions write concurrently, the database is then cleaned by a previous step
+    @Inject
+    @BatchProperty
+    private String cleanDatabase;
+
     private Boolean hasCheckPoint;
 
     @Override
     public void open(Serializable checkpoint) throws Exception {
-        if (checkpoint == null) {
+        if (checkpoint == null && !"false".equals(cleanDatabase)) {
             log.info("No checkpoint detected. Cleaning the Database");
             entityManager.createQuery("DELETE FROM Contact c").executeUpdate();
             hasCheckPoint = true;
@@ -54,8 +61,10 @@ public class ContactsPersister extends AbstractItemWriter {
         for (int i = 0; i < items.size(); i++) {
             Contact c = (Contact) items.get(i);
             entityManager.persist(c);
-            entityManager.flush();
         }
+        entityManager.flush();
+        // the persisted contacts are not needed anymore, don't keep them in the persistence context
+        entityManager.clear();
     }
 
     @Override
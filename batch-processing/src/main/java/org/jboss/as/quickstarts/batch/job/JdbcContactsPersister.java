@@ -0,0 +1,85 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.batch.job;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.logging.Logger;
+
+import javax.annotation.Resource;
+import javax.batch.api.BatchProperty;
+import javax.batch.api.chunk.AbstractItemWriter;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.sql.DataSource;
+
+import org.jboss.as.quickstarts.batch.model.Contact;
+
+//This class is an alternative to ContactsPersister, which inserts the contacts chunk with a single JDBC batch, bypassing JPA
+//The connection is enlisted in the chunk's transaction, as any other resource of the datasource
+@Named("jdbcContactsPersister")
+public class JdbcContactsPersister extends AbstractItemWriter {
+
+    private static final String INSERT_CONTACT = "INSERT INTO Contact (id, name, phone) VALUES (?, ?, ?)";
+
+    @Resource(lookup = "java:jboss/datasources/batch-processingDS")
+    private DataSource dataSource;
+
+    @Inject
+    private Logger log;
+
+    // Set to false when partitions write concurrently, the database is then cleaned by a previous step
+    @Inject
+    @BatchProperty
+    private String cleanDatabase;
+
+    private Boolean hasCheckPoint;
+
+    @Override
+    public void open(Serializable checkpoint) throws Exception {
+        if (checkpoint == null && !"false".equals(cleanDatabase)) {
+            log.info("No checkpoint detected. Cleaning the Database");
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.executeUpdate("DELETE FROM Contact");
+            }
+            hasCheckPoint = true;
+        }
+    }
+
+    @Override
+    public void writeItems(List<Object> items) throws Exception {
+        try (Connection connection = dataSource.getConnection(); PreparedStatement statement = connection.prepareStatement(INSERT_CONTACT)) {
+            for (Object item : items) {
+                Contact c = (Contact) item;
+                statement.setInt(1, c.getId());
+                statement.setString(2, c.getName());
+                statement.setString(3, c.getPhone());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    @Override
+    public Serializable checkpointInfo() throws Exception {
+        return hasCheckPoint;
+    }
+
+}
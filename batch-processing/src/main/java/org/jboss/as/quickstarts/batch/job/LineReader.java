@@ -0,0 +1,146 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.batch.job;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+//This class reads the lines of a file, starting at a byte offset, and keeps track of the byte offset of the next line
+public class LineReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+
+    private final InputStream in;
+
+    private final Charset charset;
+
+    // the chunk read from the file, the bytes from bufferPosition to bufferLimit were not consumed yet
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private int bufferPosition;
+
+    private int bufferLimit;
+
+    private byte[] line = new byte[256];
+
+    private long position;
+
+    public LineReader(File file, long position) throws IOException {
+        this(file, position, Charset.defaultCharset());
+    }
+
+    public LineReader(File file, long position, Charset charset) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.channel.position(position);
+        this.in = Channels.newInputStream(channel);
+        this.position = position;
+        this.charset = charset;
+    }
+
+    // Reads the next line, without the line terminator, or returns null if the end of the file was reached
+    public String readLine() throws IOException {
+        int length = 0;
+        boolean terminated = false;
+        while (!terminated) {
+            if (bufferPosition == bufferLimit && !fill()) {
+                if (length == 0) {
+                    return null;
+                }
+                break;
+            }
+            // scan the chunk for the line terminator, and copy the line's bytes at once
+            int end = bufferPosition;
+            while (end < bufferLimit && buffer[end] != '\n') {
+                end++;
+            }
+            final int count = end - bufferPosition;
+            if (length + count > line.length) {
+                line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+            }
+            System.arraycopy(buffer, bufferPosition, line, length, count);
+            length += count;
+            terminated = end < bufferLimit;
+            // consume the line terminator too
+            final int consumed = terminated ? count + 1 : count;
+            bufferPosition += consumed;
+            position += consumed;
+        }
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        return new String(line, 0, length, charset);
+    }
+
+    // Reads the next chunk of the file, returns false if the end of the file was reached
+    private boolean fill() throws IOException {
+        final int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        bufferPosition = 0;
+        bufferLimit = read;
+        return true;
+    }
+
+    // The byte offset of the next line
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+        channel.close();
+    }
+
+    // Finds the byte offset of the first line starting at or after the specified offset
+    public static long alignToLineStart(File file, long offset) throws IOException {
+        if (offset <= 0) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (offset >= size) {
+                return size;
+            }
+            // a line starts at the offset if the previous byte is a line terminator
+            channel.position(offset - 1);
+            final InputStream in = Channels.newInputStream(channel);
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            long position = offset - 1;
+            int read;
+            while ((read = in.read(buffer, 0, buffer.length)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        return position + i + 1;
+                    }
+                }
+                position += read;
+            }
+            return size;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.batch.job;
+
+import java.io.File;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import javax.batch.api.BatchProperty;
+import javax.batch.api.partition.PartitionMapper;
+import javax.batch.api.partition.PartitionPlan;
+import javax.batch.api.partition.PartitionPlanImpl;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+//This class splits the file to be imported in byte offset ranges, aligned to line boundaries, one for each partition
+@Named("recordsPartitionMapper")
+public class RecordsPartitionMapper implements PartitionMapper {
+
+    // Here you can inject a property defined in import-file-partitioned.xml
+    @Inject
+    @BatchProperty
+    private String fileName;
+
+    // The number of partitions
+    @Inject
+    @BatchProperty
+    private String partitions;
+
+    // The number of threads running the partitions
+    @Inject
+    @BatchProperty
+    private String threads;
+
+    @Inject
+    private Logger log;
+
+    @Override
+    public PartitionPlan mapPartitions() throws Exception {
+        File file = new File(System.getProperty("java.io.tmpdir"), fileName);
+        int numPartitions = Integer.parseInt(partitions);
+        if (numPartitions < 1) {
+            throw new IllegalArgumentException("The number of partitions must be positive: " + numPartitions);
+        }
+        long fileSize = file.length();
+        Properties[] partitionProperties = new Properties[numPartitions];
+        long startOffset = 0;
+        for (int i = 0; i < numPartitions; i++) {
+            long endOffset = i == numPartitions - 1 ? fileSize : LineReader.alignToLineStart(file, fileSize * (i + 1) / numPartitions);
+            Properties properties = new Properties();
+            properties.setProperty("startOffset", Long.toString(startOffset));
+            properties.setProperty("endOffset", Long.toString(endOffset));
+            partitionProperties[i] = properties;
+            log.info(String.format("Partition #%d will read bytes [%d, %d) of file %s", i, startOffset, endOffset, file));
+            startOffset = endOffset;
+        }
+        PartitionPlanImpl plan = new PartitionPlanImpl();
+        plan.setPartitions(numPartitions);
+        plan.setThreads(threads != null ? Integer.parseInt(threads) : numPartitions);
+        plan.setPartitionProperties(partitionProperties);
+        return plan;
+    }
+
+}
@@ -16,9 +16,7 @@
  */
 package org.jboss.as.quickstarts.batch.job;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.Serializable;
 import java.util.logging.Logger;
 
@@ -30,6 +28,7 @@ import javax.inject.Named;
 import org.jboss.as.quickstarts.batch.model.Contact;
 
 //This class will read the file and return an instance of Contact to be imported
+//When the step is partitioned each partition reads only the lines starting in its byte offset range
 @Named("recordsReader")
 public class RecordsReader implements ItemReader {
 
@@ -43,10 +42,22 @@ public class RecordsReader implements ItemReader {
     @BatchProperty
     private String fileName;
 
+    // The byte offset where the partition's first line starts, if the step is partitioned
+    @Inject
+    @BatchProperty
+    private String startOffset;
+
+    // The byte offset where the next partition's first line starts, if the step is partitioned
+    @Inject
+    @BatchProperty
+    private String endOffset;
+
     @Inject
     private Logger log;
 
-    private BufferedReader br;
+    private LineReader br;
+
+    private long end;
 
     private ChunkCheckpoint checkpoint;
 
@@ -64,18 +75,31 @@ public class RecordsReader implements ItemReader {
         else {
             this.checkpoint = (ChunkCheckpoint) previousCheckpoint;
         }
-        br = new BufferedReader(new FileReader(new File(System.getProperty("java.io.tmpdir"), fileName)));
+        long start = startOffset != null ? Long.parseLong(startOffset) : 0;
+        end = endOffset != null ? Long.parseLong(endOffset) : Long.MAX_VALUE;
+        File file = new File(System.getProperty("java.io.tmpdir"), fileName);
         long lineNumber = checkpoint.getLineNumber();
-        if (lineNumber > 0) {
-            log.info("Skipping to line " + lineNumber + " as marked by previous checkpoint");
-        }
-        for (long i = 0; i < lineNumber; i++) {
-            br.readLine();
+        if (checkpoint.hasOffset()) {
+            // seek straight to the line after the last one read
+            log.info("Seeking to line " + lineNumber + " (byte offset " + checkpoint.getOffset() + ") as marked by previous checkpoint");
+            br = new LineReader(file, checkpoint.getOffset());
+        } else {
+            br = new LineReader(file, start);
+            if (lineNumber > 0) {
+                log.info("Skipping to line " + lineNumber + " as marked by previous checkpoint");
+            }
+            for (long i = 0; i < lineNumber; i++) {
+                br.readLine();
+            }
         }
     }
 
     @Override
     public Contact readItem() throws Exception {
+        if (br.getPosition() >= end) {
+            // the next line belongs to the next partition
+            return null;
+        }
         String line = br.readLine();
         if (line != null) {
             String[] fields = line.split(separatorRegex);
@@ -84,7 +108,7 @@ public class RecordsReader implements ItemReader {
             contact.setName(fields[1]);
             contact.setPhone(fields[2]);
             // update the checkpoint
-            checkpoint.increase();
+            checkpoint.increase(br.getPosition());
             return contact;
         }
         return null;
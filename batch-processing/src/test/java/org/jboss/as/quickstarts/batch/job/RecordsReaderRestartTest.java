@@ -0,0 +1,169 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.batch.job;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.logging.Logger;
+
+import javax.batch.api.chunk.ItemReader;
+
+import org.jboss.as.quickstarts.batch.model.Contact;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+//This class tests that a restarted job resumes reading the records from its last checkpoint, without a container
+public class RecordsReaderRestartTest {
+
+    private static final int RECORDS = 1_000_000;
+
+    private static final int CHECKPOINT_RECORDS = 900_000;
+
+    private File file;
+
+    @Before
+    public void generateFile() throws IOException {
+        // the readers look the file up in the temporary directory
+        file = File.createTempFile("contacts", ".txt");
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), Charset.defaultCharset())) {
+            for (int i = 1; i <= RECORDS; i++) {
+                writer.write(i + "|name" + i + "|555" + i + "\n");
+            }
+        }
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Test
+    public void testRecordsReaderRestart() throws Exception {
+        assertRestart(new RecordsReader(), new RecordsReader());
+    }
+
+    @Test
+    public void testMappedRecordsReaderRestart() throws Exception {
+        assertRestart(new MappedRecordsReader(), new MappedRecordsReader());
+    }
+
+    @Test
+    public void testRestartFromCheckpointWithoutOffset() throws Exception {
+        // a checkpoint stored before the offset was added, the reader skips the lines read instead
+        ChunkCheckpoint checkpoint = new ChunkCheckpoint();
+        for (int i = 0; i < CHECKPOINT_RECORDS; i++) {
+            checkpoint.increase();
+        }
+        ItemReader reader = configure(new RecordsReader());
+        reader.open(checkpoint);
+        try {
+            assertRecord(CHECKPOINT_RECORDS + 1, (Contact) reader.readItem());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testAlignToLineStart() throws Exception {
+        LineReader lineReader = new LineReader(file, 0);
+        try {
+            for (int i = 0; i < CHECKPOINT_RECORDS; i++) {
+                lineReader.readLine();
+            }
+            long lineStart = lineReader.getPosition();
+            // a line start is kept, and an offset within the previous line is moved to the line start
+            Assert.assertEquals(lineStart, LineReader.alignToLineStart(file, lineStart));
+            Assert.assertEquals(lineStart, LineReader.alignToLineStart(file, lineStart - 5));
+            Assert.assertEquals(CHECKPOINT_RECORDS + 1 + "|name" + (CHECKPOINT_RECORDS + 1) + "|555" + (CHECKPOINT_RECORDS + 1), lineReader.readLine());
+        } finally {
+            lineReader.close();
+        }
+        Assert.assertEquals(0, LineReader.alignToLineStart(file, 0));
+        Assert.assertEquals(file.length(), LineReader.alignToLineStart(file, file.length() - 1));
+    }
+
+    // Reads records up to the checkpoint, then opens a new reader with the checkpoint, as a restarted job does, and checks the next record read
+    private void assertRestart(ItemReader reader, ItemReader restartedReader) throws Exception {
+        configure(reader).open(null);
+        Serializable checkpoint;
+        try {
+            for (int i = 1; i <= CHECKPOINT_RECORDS; i++) {
+                assertRecord(i, (Contact) reader.readItem());
+            }
+            checkpoint = reader.checkpointInfo();
+        } finally {
+            reader.close();
+        }
+        Assert.assertTrue(((ChunkCheckpoint) checkpoint).hasOffset());
+        configure(restartedReader).open(serialize(checkpoint));
+        try {
+            for (int i = CHECKPOINT_RECORDS + 1; i <= RECORDS; i++) {
+                assertRecord(i, (Contact) restartedReader.readItem());
+            }
+            Assert.assertNull(restartedReader.readItem());
+        } finally {
+            restartedReader.close();
+        }
+    }
+
+    private static void assertRecord(int id, Contact contact) {
+        Assert.assertNotNull("Missing record " + id, contact);
+        Assert.assertEquals(Integer.valueOf(id), contact.getId());
+        Assert.assertEquals("name" + id, contact.getName());
+        Assert.assertEquals("555" + id, contact.getPhone());
+    }
+
+    // Sets the properties injected by the batch runtime, as in import-file.xml
+    private ItemReader configure(ItemReader reader) throws Exception {
+        setField(reader, "fileName", file.getName());
+        setField(reader, "log", Logger.getLogger(reader.getClass().getName()));
+        if (reader instanceof RecordsReader) {
+            setField(reader, "separatorRegex", "[|]");
+        } else {
+            setField(reader, "separator", "|");
+        }
+        return reader;
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    // The job repository stores the checkpoint serialized
+    private static Serializable serialize(Serializable checkpoint) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(checkpoint);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (Serializable) in.readObject();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.quickstarts.contact;
+
+/**
+ * This event is fired by the ContactService when a Contact is created, updated or deleted, so that the ContactSearchIndex
+ * applies the change once the transaction commits.
+ */
+public class ContactChangedEvent {
+
+    private final Long id;
+
+    private final Contact contact;
+
+    private ContactChangedEvent(Long id, Contact contact) {
+        this.id = id;
+        this.contact = contact;
+    }
+
+    static ContactChangedEvent stored(Contact contact) {
+        return new ContactChangedEvent(contact.getId(), contact);
+    }
+
+    static ContactChangedEvent deleted(Long id) {
+        return new ContactChangedEvent(id, null);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return the Contact stored, or null if it was deleted
+     */
+    public Contact getContact() {
+        return contact;
+    }
+
+}
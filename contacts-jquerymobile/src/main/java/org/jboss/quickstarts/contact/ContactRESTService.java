@@ -30,12 +30,14 @@ import javax.validation.ConstraintViolationException;
 import javax.validation.ValidationException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -69,6 +71,9 @@ import javax.ws.rs.WebApplicationException;
 @Produces(MediaType.APPLICATION_JSON)
 @Stateless
 public class ContactRESTService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Inject
     private Logger log;
 
@@ -89,6 +94,26 @@ public class ContactRESTService {
         return Response.ok(contacts).build();
     }
 
+    /**
+     * Search for the Contacts with a word, in their name, email or phone number, starting with each term of the query, for
+     * instance "jo doe" finds John Doe.  They are sorted alphabetically by name, and returned a page at a time, together with
+     * the total number of Contacts found.
+     *
+     * @param query
+     * @param page the page number, starting at 0
+     * @param size the page size
+     * @return Response
+     */
+    @GET
+    @Path("/search")
+    public Response searchContacts(@QueryParam("q") String query, @QueryParam("page") @DefaultValue("0") int page,
+        @QueryParam("size") @DefaultValue("20") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        }
+        return Response.ok(service.search(query, page * size, size)).build();
+    }
+
     /**
      * Search for and return all the Contacts.  They are sorted alphabetically by name.
      *
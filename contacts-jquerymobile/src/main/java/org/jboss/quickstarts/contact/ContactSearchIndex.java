@@ -0,0 +1,260 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.quickstarts.contact;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This is an in memory, inverted index of the Contacts, which allows searching them by the prefix of any word of their name,
+ * email and phone number, without querying the database.
+ *
+ * The index is loaded from the database when first used, and then kept in sync by observing the changes fired by the
+ * ContactService, on each create, update and delete, once its transaction commits.
+ */
+@ApplicationScoped
+public class ContactSearchIndex {
+
+    // The same order as Contact.FIND_ALL
+    private static final Comparator<Contact> ORDER_BY_NAME = Comparator
+        .comparing(Contact::getLastName, String.CASE_INSENSITIVE_ORDER)
+        .thenComparing(Contact::getFirstName, String.CASE_INSENSITIVE_ORDER)
+        .thenComparing(Contact::getId);
+
+    @Inject
+    private ContactRepository crud;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // The words sorted, so that all words with a prefix are next to each other, each mapped to the IDs of the Contacts
+    private final NavigableMap<String, Set<Long>> words = new TreeMap<>();
+
+    // The indexed Contacts, and their words, by ID
+    private final Map<Long, Contact> contacts = new HashMap<>();
+    private final Map<Long, Set<String>> contactWords = new HashMap<>();
+
+    private boolean loaded;
+
+    /**
+     * Search the Contacts which have, for each term of the query, a word starting with the term. Results are sorted
+     * alphabetically by last name.
+     *
+     * @param query
+     * @param first the position of the first result to return
+     * @param maxResults the max number of results to return
+     * @return the requested results, and the total number of Contacts found
+     */
+    ContactSearchResult search(String query, int first, int maxResults) {
+        Set<String> terms = toTerms(query);
+        List<Contact> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (!loaded) {
+                lock.readLock().unlock();
+                try {
+                    load();
+                } finally {
+                    lock.readLock().lock();
+                }
+            }
+            Set<Long> ids = null;
+            for (String term : terms) {
+                Set<Long> termIds = new HashSet<>();
+                for (Set<Long> wordIds : words.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+                    termIds.addAll(wordIds);
+                }
+                if (ids == null) {
+                    ids = termIds;
+                } else {
+                    ids.retainAll(termIds);
+                }
+                if (ids.isEmpty()) {
+                    break;
+                }
+            }
+            if (ids != null) {
+                for (Long id : ids) {
+                    found.add(copy(contacts.get(id)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        found.sort(ORDER_BY_NAME);
+        int from = Math.min(first, found.size());
+        int to = Math.min(from + maxResults, found.size());
+        return new ContactSearchResult(found.size(), new ArrayList<>(found.subList(from, to)));
+    }
+
+    /**
+     * Apply a committed change of a Contact to the index. Changes rolled back are never observed, thus never indexed.
+     *
+     * @param event
+     */
+    void onContactChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) final ContactChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            // If not loaded yet, the committed change is read by the load
+            if (loaded) {
+                if (event.getContact() != null) {
+                    index(event.getContact());
+                } else {
+                    unindex(event.getId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                for (Contact contact : crud.findAllOrderedByName()) {
+                    index(contact);
+                }
+                loaded = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(Contact contact) {
+        unindex(contact.getId());
+        Set<String> indexedWords = toWords(contact.getFirstName() + " " + contact.getLastName() + " " + contact.getEmail());
+        // Phone numbers are indexed by their digits only, no matter how they are formatted
+        String phoneDigits = contact.getPhoneNumber() == null ? "" : contact.getPhoneNumber().replaceAll("[^0-9]", "");
+        if (!phoneDigits.isEmpty()) {
+            indexedWords.add(phoneDigits);
+        }
+        for (String word : indexedWords) {
+            words.computeIfAbsent(word, w -> new HashSet<>()).add(contact.getId());
+        }
+        contacts.put(contact.getId(), copy(contact));
+        contactWords.put(contact.getId(), indexedWords);
+    }
+
+    private void unindex(Long id) {
+        Set<String> indexedWords = contactWords.remove(id);
+        if (indexedWords != null) {
+            for (String word : indexedWords) {
+                Set<Long> ids = words.get(word);
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    words.remove(word);
+                }
+            }
+        }
+        contacts.remove(id);
+    }
+
+    /*
+     * Splits the query in lower case terms. Terms which look like phone numbers are reduced to their digits, as indexed.
+     */
+    private static Set<String> toTerms(String query) {
+        Set<String> result = new HashSet<>();
+        if (query == null) {
+            return result;
+        }
+        for (String token : query.toLowerCase(Locale.ENGLISH).split("\\s+")) {
+            if (token.matches("[0-9()+\\-. ]*[0-9][0-9()+\\-. ]*")) {
+                token = token.replaceAll("[^0-9]", "");
+            }
+            if (!token.isEmpty()) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Splits the text in lower case words. The whole email is also a word, and so is each of its parts.
+     */
+    private static Set<String> toWords(String text) {
+        Set<String> result = new HashSet<>();
+        if (text == null) {
+            return result;
+        }
+        for (String token : text.toLowerCase(Locale.ENGLISH).split("\\s+")) {
+            if (token.isEmpty() || token.equals("null")) {
+                continue;
+            }
+            result.add(token);
+            for (String part : token.split("[^\\p{Alnum}]+")) {
+                if (!part.isEmpty()) {
+                    result.add(part);
+                }
+            }
+        }
+        return result;
+    }
+
+    /*
+     * The index keeps its own copies, so that changes to the Contacts returned, or passed in, do not affect it.
+     */
+    private static Contact copy(Contact contact) {
+        Contact copy = new Contact();
+        copy.setId(contact.getId());
+        copy.setFirstName(contact.getFirstName());
+        copy.setLastName(contact.getLastName());
+        copy.setEmail(contact.getEmail());
+        copy.setPhoneNumber(contact.getPhoneNumber());
+        copy.setBirthDate(contact.getBirthDate());
+        return copy;
+    }
+
+    /**
+     * The total number of Contacts found by a search, and the requested page of them.
+     */
+    public static class ContactSearchResult {
+
+        private final int total;
+
+        private final Collection<Contact> contacts;
+
+        ContactSearchResult(int total, Collection<Contact> contacts) {
+            this.total = total;
+            this.contacts = contacts;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public Collection<Contact> getContacts() {
+            return contacts;
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.jboss.quickstarts.contact;
 
 import javax.enterprise.context.Dependent;
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.validation.ConstraintViolationException;
 import javax.validation.ValidationException;
@@ -49,6 +50,12 @@ public class ContactService {
     @Inject
     private ContactRepository crud;
 
+    @Inject
+    private ContactSearchIndex searchIndex;
+
+    @Inject
+    private Event<ContactChangedEvent> contactChangedEvent;
+
     /**
      * Find all the Contacts and sort them alphabetically by last name.
      *
@@ -99,10 +106,23 @@ public class ContactService {
      * @return Contact
      */
     Contact findByLastName(String lastName) {
-        Contact contact = crud.findByFirstName(lastName);
+        Contact contact = crud.findByLastName(lastName);
         return contact;
     }
 
+    /**
+     * Search the Contacts with a word, in their name, email or phone number, starting with each term of the query. The
+     * search uses the in memory index, not the database.
+     *
+     * @param query
+     * @param first the position of the first result to return
+     * @param maxResults the max number of results to return
+     * @return ContactSearchResult
+     */
+    ContactSearchIndex.ContactSearchResult search(String query, int first, int maxResults) {
+        return searchIndex.search(query, first, maxResults);
+    }
+
     /**
      * Create a Contact and store it in the database.
      *
@@ -121,6 +141,9 @@ public class ContactService {
         // Write the contact to the database.
         Contact createdContact = crud.create(contact);
 
+        // Keep the search index in sync, once the transaction commits.
+        contactChangedEvent.fire(ContactChangedEvent.stored(createdContact));
+
         return createdContact;
     }
 
@@ -143,6 +166,9 @@ public class ContactService {
         // Either update the contact or add it if it can't be found.
         Contact updatedContact = crud.update(contact);
 
+        // Keep the search index in sync, once the transaction commits.
+        contactChangedEvent.fire(ContactChangedEvent.stored(updatedContact));
+
         return updatedContact;
     }
 
@@ -161,6 +187,9 @@ public class ContactService {
 
         if (contact.getId() != null) {
             deletedContact = crud.delete(contact);
+
+            // Keep the search index in sync, once the transaction commits.
+            contactChangedEvent.fire(ContactChangedEvent.deleted(contact.getId()));
         } else {
             log.info("ContactService.delete() - No ID was found so can't Delete.");
         }
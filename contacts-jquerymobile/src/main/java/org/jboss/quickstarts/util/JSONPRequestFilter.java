@@ -16,23 +16,22 @@
  */
 package org.jboss.quickstarts.util;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.regex.Pattern;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
-import javax.servlet.ServletOutputStream;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
-import javax.servlet.WriteListener;
 import javax.servlet.annotation.WebFilter;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
 import javax.servlet.http.HttpServletResponse;
-import javax.servlet.http.HttpServletResponseWrapper;
 
 /**
  * <p>
@@ -43,11 +42,15 @@ import javax.servlet.http.HttpServletResponseWrapper;
  * To qualify for wrapping the request must be made to the <i>/rest/*</i> path, and contain a query parameter call
  * <i>jsoncallback</> that defines the JSONP callback method to use with the response.
  * </p>
+ * <p>
+ * Async requests are supported, the padding suffix is then written when the async request is completed, right before the
+ * container completes it. Dispatching async requests is not supported, as the dispatched content could not be padded.
+ * </p>
  *
  * @author balunasj
  *
  */
-@WebFilter("/rest/*")
+@WebFilter(urlPatterns = "/rest/*", asyncSupported = true)
 public class JSONPRequestFilter implements Filter {
     // The callback method to use
     private static final String CALLBACK_METHOD = "jsonpcallback";
@@ -85,50 +88,20 @@ public class JSONPRequestFilter implements Filter {
                 throw new ServletException("JSONP Callback method '" + CALLBACK_METHOD + "' parameter not valid function");
             }
 
-            // Will stream updated response
-            final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-
-            // Create a custom response wrapper to adding in the padding
-            HttpServletResponseWrapper responseWrapper = new HttpServletResponseWrapper(httpResponse) {
-
-                @Override
-                public ServletOutputStream getOutputStream() throws IOException {
-                    return new ServletOutputStream() {
-                        @Override
-                        public void write(int b) throws IOException {
-                            byteStream.write(b);
-                        }
-
-                        @Override
-                        public boolean isReady() {
-                            // The stream is always ready
-                            return true;
-                        }
-
-                        @Override
-                        public void setWriteListener(WriteListener writeListener) {
-                            // Nothing to do
-                        }
-                    };
-                }
-
-                @Override
-                public PrintWriter getWriter() throws IOException {
-                    return new PrintWriter(byteStream);
-                }
-            };
+            // Create a custom response wrapper to stream the response with the padding
+            JSONPResponseWrapper responseWrapper = new JSONPResponseWrapper(httpResponse, callback);
 
-            // Process the rest of the filter chain, including the JAX-RS request
-            chain.doFilter(request, responseWrapper);
+            // Wrap the request too, so that an async request writes the padding suffix when completed
+            JSONPRequestWrapper requestWrapper = new JSONPRequestWrapper(httpRequest, responseWrapper);
 
-            // Override response content and encoding
-            response.setContentType(CONTENT_TYPE);
-            response.setCharacterEncoding("UTF-8");
+            // Process the rest of the filter chain, including the JAX-RS request
+            chain.doFilter(requestWrapper, responseWrapper);
 
-            // Write the padded updates to the output stream.
-            response.getOutputStream().write((callback + "(").getBytes());
-            response.getOutputStream().write(byteStream.toByteArray());
-            response.getOutputStream().write(");".getBytes());
+            // If async the response may still be written, and the padding suffix is written when the async request completes
+            if (!requestWrapper.isAsync()) {
+                // Write the padding suffix to the output stream.
+                responseWrapper.finish();
+            }
         }
     }
 
@@ -145,4 +118,122 @@ public class JSONPRequestFilter implements Filter {
     public void destroy() {
         // Nothing to do
     }
+
+    /*
+     * Wraps the async context of the request, so that the padding suffix is written when the async request completes.
+     */
+    private static class JSONPRequestWrapper extends HttpServletRequestWrapper {
+
+        private final JSONPResponseWrapper responseWrapper;
+
+        private AsyncContext asyncContext;
+
+        private JSONPRequestWrapper(HttpServletRequest request, JSONPResponseWrapper responseWrapper) {
+            super(request);
+            this.responseWrapper = responseWrapper;
+        }
+
+        private boolean isAsync() {
+            // isAsyncStarted() is false once the async request is completed, even if it was during the filter chain
+            return asyncContext != null;
+        }
+
+        @Override
+        public AsyncContext startAsync() throws IllegalStateException {
+            // the wrappers are used by the async request, so that its response is padded too
+            return startAsync(this, responseWrapper);
+        }
+
+        @Override
+        public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse)
+            throws IllegalStateException {
+            asyncContext = new JSONPAsyncContext(super.startAsync(servletRequest, servletResponse), responseWrapper);
+            return asyncContext;
+        }
+
+        @Override
+        public AsyncContext getAsyncContext() {
+            return asyncContext != null ? asyncContext : super.getAsyncContext();
+        }
+    }
+
+    /*
+     * An async context which writes the padding suffix before completing the async request, while the response is still open.
+     */
+    private static class JSONPAsyncContext implements AsyncContext {
+
+        private final AsyncContext delegate;
+
+        private final JSONPResponseWrapper responseWrapper;
+
+        private JSONPAsyncContext(AsyncContext delegate, JSONPResponseWrapper responseWrapper) {
+            this.delegate = delegate;
+            this.responseWrapper = responseWrapper;
+        }
+
+        @Override
+        public void complete() {
+            responseWrapper.complete(delegate);
+        }
+
+        @Override
+        public ServletRequest getRequest() {
+            return delegate.getRequest();
+        }
+
+        @Override
+        public ServletResponse getResponse() {
+            return delegate.getResponse();
+        }
+
+        @Override
+        public boolean hasOriginalRequestAndResponse() {
+            return delegate.hasOriginalRequestAndResponse();
+        }
+
+        @Override
+        public void dispatch() {
+            throw new IllegalStateException("JSONP async requests can not be dispatched");
+        }
+
+        @Override
+        public void dispatch(String path) {
+            throw new IllegalStateException("JSONP async requests can not be dispatched");
+        }
+
+        @Override
+        public void dispatch(ServletContext context, String path) {
+            throw new IllegalStateException("JSONP async requests can not be dispatched");
+        }
+
+        @Override
+        public void start(Runnable run) {
+            delegate.start(run);
+        }
+
+        @Override
+        public void addListener(AsyncListener listener) {
+            delegate.addListener(listener);
+        }
+
+        @Override
+        public void addListener(AsyncListener listener, ServletRequest servletRequest, ServletResponse servletResponse) {
+            delegate.addListener(listener, servletRequest, servletResponse);
+        }
+
+        @Override
+        public <T extends AsyncListener> T createListener(Class<T> clazz) throws ServletException {
+            return delegate.createListener(clazz);
+        }
+
+        @Override
+        public void setTimeout(long timeout) {
+            delegate.setTimeout(timeout);
+        }
+
+        @Override
+        public long getTimeout() {
+            return delegate.getTimeout();
+        }
+    }
 }
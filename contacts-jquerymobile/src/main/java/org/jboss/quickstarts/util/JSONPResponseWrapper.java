@@ -0,0 +1,292 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.quickstarts.util;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * <p>
+ * A response wrapper which pads the response content with the JSONP callback method, while streaming it.
+ * </p>
+ * <p>
+ * The content is not buffered, the callback prefix is written together with the first content bytes, the content is then
+ * written straight to the wrapped response output stream, and the suffix is written by {@link #finish()} once the request
+ * completes, or by {@link #complete(AsyncContext)} right before an async request completes.
+ * </p>
+ * <p>
+ * Non-blocking output is supported: the {@link WriteListener} is set on the wrapped output stream, and each write of the
+ * padding is a single write, done only when the wrapped output stream is ready. If it is not ready when the async request is
+ * completed, the suffix is written, and the async request completed, once it becomes ready.
+ * </p>
+ */
+public class JSONPResponseWrapper extends HttpServletResponseWrapper {
+
+    private static final byte[] SUFFIX = ");".getBytes(StandardCharsets.UTF_8);
+
+    private final byte[] prefix;
+
+    private PaddedOutputStream outputStream;
+
+    private PrintWriter writer;
+
+    public JSONPResponseWrapper(HttpServletResponse response, String callback) {
+        super(response);
+        this.prefix = (callback + "(").getBytes(StandardCharsets.UTF_8);
+        // The padded content is always javascript, and its length is unknown
+        response.setContentType(JSONPRequestFilter.CONTENT_TYPE);
+        response.setCharacterEncoding("UTF-8");
+    }
+
+    @Override
+    public void setContentType(String type) {
+        // Ignored, see constructor
+    }
+
+    @Override
+    public void setCharacterEncoding(String charset) {
+        // Ignored, see constructor
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        // Ignored, the padding changes the length
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        // Ignored, the padding changes the length
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (!isIgnoredHeader(name)) {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (!isIgnoredHeader(name)) {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (!isIgnoredHeader(name)) {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        if (!isIgnoredHeader(name)) {
+            super.addIntHeader(name, value);
+        }
+    }
+
+    private boolean isIgnoredHeader(String name) {
+        return "Content-Type".equalsIgnoreCase(name) || "Content-Length".equalsIgnoreCase(name);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        return getPaddedOutputStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            writer = new PrintWriter(new OutputStreamWriter(getPaddedOutputStream(), StandardCharsets.UTF_8));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        super.flushBuffer();
+    }
+
+    private PaddedOutputStream getPaddedOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new PaddedOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    /**
+     * Completes the padded content, writing the prefix if no content was written, and then the suffix.
+     */
+    public void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        getPaddedOutputStream().finish();
+    }
+
+    /**
+     * Completes the padded content, as {@link #finish()}, and then the specified async request. With non-blocking output the
+     * suffix may only be written when the output stream is ready, if it is not the async request is completed later, once the
+     * suffix is written.
+     */
+    void complete(AsyncContext asyncContext) {
+        try {
+            if (writer != null) {
+                writer.flush();
+            }
+            getPaddedOutputStream().complete(asyncContext);
+        } catch (IOException e) {
+            // the client is gone, the async request is completed anyway
+            asyncContext.complete();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private class PaddedOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        private boolean started;
+
+        // the listener of the non-blocking output, if set
+        private WriteListener writeListener;
+
+        // the async request to complete once the output stream is ready to write the suffix
+        private AsyncContext pendingCompletion;
+
+        private PaddedOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        // Writes the specified bytes, preceded by the prefix if nothing was written yet, in a single write, as with non-blocking
+        // output each write must be preceded by a ready check
+        private void writePadded(byte[] b, int off, int len) throws IOException {
+            if (started) {
+                delegate.write(b, off, len);
+            } else {
+                started = true;
+                byte[] padded = new byte[prefix.length + len];
+                System.arraycopy(prefix, 0, padded, 0, prefix.length);
+                System.arraycopy(b, off, padded, prefix.length, len);
+                delegate.write(padded);
+            }
+        }
+
+        private void finish() throws IOException {
+            writePadded(SUFFIX, 0, SUFFIX.length);
+        }
+
+        private void complete(AsyncContext asyncContext) throws IOException {
+            synchronized (this) {
+                if (writeListener != null && !delegate.isReady()) {
+                    // the container calls onWritePossible once ready, which then writes the suffix and completes
+                    pendingCompletion = asyncContext;
+                    return;
+                }
+            }
+            finish();
+            asyncContext.complete();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            writePadded(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            writePadded(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // The wrapped stream is not closed, the suffix is yet to be written
+            delegate.flush();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            this.writeListener = writeListener;
+            delegate.setWriteListener(new PaddedWriteListener(writeListener));
+        }
+
+        /*
+         * Notifies the application's listener, unless the async request was completed while the output stream was not ready,
+         * in such case the content is complete, and the suffix is written instead.
+         */
+        private class PaddedWriteListener implements WriteListener {
+
+            private final WriteListener writeListener;
+
+            private PaddedWriteListener(WriteListener writeListener) {
+                this.writeListener = writeListener;
+            }
+
+            @Override
+            public void onWritePossible() throws IOException {
+                AsyncContext asyncContext;
+                synchronized (PaddedOutputStream.this) {
+                    asyncContext = pendingCompletion;
+                    pendingCompletion = null;
+                }
+                if (asyncContext != null) {
+                    try {
+                        finish();
+                    } finally {
+                        asyncContext.complete();
+                    }
+                } else {
+                    writeListener.onWritePossible();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                writeListener.onError(t);
+            }
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.jboss.quickstarts.contact.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -38,12 +39,15 @@ import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.arquillian.junit.InSequence;
 import org.jboss.arquillian.test.api.ArquillianResource;
 import org.jboss.quickstarts.contact.Contact;
+import org.jboss.quickstarts.contact.ContactChangedEvent;
 import org.jboss.quickstarts.contact.ContactRESTService;
 import org.jboss.quickstarts.contact.ContactRepository;
+import org.jboss.quickstarts.contact.ContactSearchIndex;
 import org.jboss.quickstarts.contact.ContactService;
 import org.jboss.quickstarts.contact.ContactValidator;
 import org.jboss.quickstarts.contact.JaxRsActivator;
 import org.jboss.quickstarts.util.JSONPRequestFilter;
+import org.jboss.quickstarts.util.JSONPResponseWrapper;
 import org.jboss.quickstarts.util.JacksonConfig;
 import org.jboss.quickstarts.util.Resources;
 import org.jboss.shrinkwrap.api.Archive;
@@ -80,13 +84,16 @@ public class ContactRegistrationIT {
         Archive<?> archive = ShrinkWrap
             .create(WebArchive.class, "test.war")
             .addClasses(Contact.class,
+                ContactChangedEvent.class,
                 ContactRESTService.class,
                 JaxRsActivator.class,
                 ContactRepository.class,
+                ContactSearchIndex.class,
                 ContactValidator.class,
                 ContactService.class,
                 JacksonConfig.class,
                 JSONPRequestFilter.class,
+                JSONPResponseWrapper.class,
                 Resources.class)
             //            .addAsLibraries(libs)
             .addAsResource("META-INF/test-persistence.xml", "META-INF/persistence.xml")
@@ -214,6 +221,34 @@ public class ContactRegistrationIT {
         client.close();
     }
 
+    @Test
+    @RunAsClient
+    @InSequence(7)
+    public void shouldSearchContacts(@ArquillianResource URL contextPath) throws JAXBException {
+        Contact contact = createContactInstance("Searchable", "Contact", "searchable@mailinator.com", "212-555-9876", date);
+
+        // POSTs a Contact
+        Client client = ClientBuilder.newClient();
+        URI uri = UriBuilder.fromUri(contextPath + REST_ROOT).port(8080).build();
+        Response response = client.target(uri).request().post(Entity.entity(contact, MediaType.APPLICATION_JSON));
+        assertEquals(Response.Status.CREATED, response.getStatusInfo());
+        response.close();
+
+        // Searches by name, email and phone number prefixes
+        for (String query : new String[] { "search", "searchable cont", "searchable@mail", "2125559" }) {
+            response = client.target(uri).path("search").queryParam("q", query).request().get();
+            assertEquals(Response.Status.OK, response.getStatusInfo());
+            String result = response.readEntity(String.class);
+            assertTrue("Contact not found with query " + query + ": " + result, result.contains("searchable@mailinator.com"));
+        }
+
+        // Searches with a term which does not match
+        response = client.target(uri).path("search").queryParam("q", "searchable nomatch").request().get();
+        assertEquals(Response.Status.OK, response.getStatusInfo());
+        assertTrue(!response.readEntity(String.class).contains("searchable@mailinator.com"));
+        client.close();
+    }
+
     private Contact createContactInstance(String firstName, String lastName, String email, String phone, Date birthDate) {
         Contact contact = new Contact();
         contact.setFirstName(firstName);
@@ -0,0 +1,199 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.quickstarts.util.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.jboss.quickstarts.util.JSONPRequestFilter;
+import org.junit.Test;
+
+/**
+ * Tests the JSONP padding of blocking, async and non-blocking responses, with fake container requests and responses.
+ */
+public class JSONPRequestFilterTest {
+
+    private final JSONPRequestFilter filter = new JSONPRequestFilter();
+
+    private final FakeOutputStream outputStream = new FakeOutputStream();
+
+    // the content written when the container completed the async request, null if not completed
+    private String completedContent;
+
+    @Test
+    public void testBlockingResponse() throws Exception {
+        filter.doFilter(newRequest(), newResponse(), (request, response) -> response.getOutputStream().write(toBytes("{\"id\":1}")));
+        assertEquals("callback({\"id\":1});", outputStream.getContent());
+    }
+
+    @Test
+    public void testEmptyResponse() throws Exception {
+        filter.doFilter(newRequest(), newResponse(), (request, response) -> {
+        });
+        assertEquals("callback();", outputStream.getContent());
+    }
+
+    @Test
+    public void testAsyncResponse() throws Exception {
+        final AsyncContext[] asyncContext = new AsyncContext[1];
+        filter.doFilter(newRequest(), newResponse(), (request, response) -> asyncContext[0] = request.startAsync());
+        // the content is written after the filter chain returns, as by another thread
+        assertEquals("", outputStream.getContent());
+        asyncContext[0].getResponse().getWriter().write("[]");
+        asyncContext[0].complete();
+        // the suffix is written before the container completes the async request
+        assertEquals("callback([]);", completedContent);
+    }
+
+    @Test
+    public void testNonBlockingResponse() throws Exception {
+        filter.doFilter(newRequest(), newResponse(), (request, response) -> {
+            final AsyncContext asyncContext = request.startAsync();
+            final ServletOutputStream output = response.getOutputStream();
+            output.setWriteListener(new WriteListener() {
+                @Override
+                public void onWritePossible() throws IOException {
+                    if (output.isReady()) {
+                        output.write(toBytes("[]"));
+                        asyncContext.complete();
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+            });
+        });
+        // the content write leaves the output not ready, thus the suffix waits
+        outputStream.writePossible();
+        assertEquals("callback([]", outputStream.getContent());
+        assertNull(completedContent);
+        // the suffix is written once the output is ready again, and then the async request completed
+        outputStream.writePossible();
+        assertEquals("callback([]);", completedContent);
+    }
+
+    private HttpServletRequest newRequest() {
+        return newProxy(HttpServletRequest.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getParameter":
+                    return "jsonpcallback".equals(args[0]) ? "callback" : null;
+                case "startAsync":
+                    return newAsyncContext((ServletRequest) args[0], (ServletResponse) args[1]);
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private HttpServletResponse newResponse() {
+        return newProxy(HttpServletResponse.class,
+            (proxy, method, args) -> method.getName().equals("getOutputStream") ? outputStream : null);
+    }
+
+    private AsyncContext newAsyncContext(ServletRequest request, ServletResponse response) {
+        return newProxy(AsyncContext.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getRequest":
+                    return request;
+                case "getResponse":
+                    return response;
+                case "complete":
+                    completedContent = outputStream.getContent();
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T newProxy(Class<T> type, java.lang.reflect.InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            Object result = handler.invoke(proxy, method, args);
+            if (result == null && method.getReturnType() == boolean.class) {
+                return false;
+            }
+            return result;
+        });
+    }
+
+    private static byte[] toBytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /*
+     * An output stream which, once in non-blocking mode, is not ready after each write, as with a slow client, and fails writes
+     * while not ready, as containers do.
+     */
+    private static class FakeOutputStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        private WriteListener writeListener;
+
+        private boolean ready;
+
+        String getContent() {
+            return new String(content.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        void writePossible() throws IOException {
+            ready = true;
+            writeListener.onWritePossible();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (writeListener != null) {
+                if (!ready) {
+                    throw new IllegalStateException("Write while not ready");
+                }
+                ready = false;
+            }
+            content.write(b, off, len);
+        }
+
+        @Override
+        public boolean isReady() {
+            return writeListener == null || ready;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            this.writeListener = writeListener;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.data;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+
+// Keeps the emails of all members in memory, so that checking the uniqueness of an email does not need a query. The emails
+// are loaded when first needed, and the index is then kept up to date by observing the members registered.
+@ApplicationScoped
+public class MemberEmailIndex {
+
+    @Inject
+    private MemberRepository memberRepository;
+
+    private final Set<String> emails = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean loaded;
+
+    public boolean contains(String email) {
+        if (!loaded) {
+            load();
+        }
+        return emails.contains(email);
+    }
+
+    private synchronized void load() {
+        if (!loaded) {
+            // members registered while loading are added by the observer, thus none is missed
+            emails.addAll(memberRepository.findAllEmails());
+            loaded = true;
+        }
+    }
+
+    public void onMemberRegistered(@Observes(during = TransactionPhase.AFTER_SUCCESS) final Member member) {
+        emails.add(member.getEmail());
+    }
+}
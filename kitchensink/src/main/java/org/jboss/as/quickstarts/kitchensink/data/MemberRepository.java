@@ -18,11 +18,13 @@ package org.jboss.as.quickstarts.kitchensink.data;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.persistence.CacheStoreMode;
 import javax.persistence.EntityManager;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.jboss.as.quickstarts.kitchensink.model.Member;
 
@@ -48,13 +50,50 @@ public class MemberRepository {
     }
 
     public List<Member> findAllOrderedByName() {
-        CriteriaBuilder cb = em.getCriteriaBuilder();
-        CriteriaQuery<Member> criteria = cb.createQuery(Member.class);
-        Root<Member> member = criteria.from(Member.class);
-        // Swap criteria statements if you would like to try out type-safe criteria queries, a new
-        // feature in JPA 2.0
-        // criteria.select(member).orderBy(cb.asc(member.get(Member_.name)));
-        criteria.select(member).orderBy(cb.asc(member.get("name")));
-        return em.createQuery(criteria).getResultList();
+        // the named query is compiled once, and its results are cached, see Member
+        return em.createNamedQuery(Member.FIND_ALL_ORDERED_BY_NAME, Member.class).getResultList();
+    }
+
+    public List<String> findAllEmails() {
+        return em.createNamedQuery(Member.FIND_ALL_EMAILS, String.class).getResultList();
+    }
+
+    /**
+     * Retrieves a page of members ordered by name, and then by id. Instead of an offset, which needs all previous members to be
+     * scanned, the page starts right after the specified member, thus the cost of retrieving a page does not depend on its
+     * position.
+     *
+     * @param afterName the name of the last member of the previous page, or null to retrieve the first page
+     * @param afterId the id of the last member of the previous page
+     * @param maxResults the max number of members retrieved
+     */
+    public List<Member> findPageOrderedByName(String afterName, Long afterId, int maxResults) {
+        if (afterName == null) {
+            return em.createNamedQuery(Member.FIND_FIRST_PAGE_ORDERED_BY_NAME, Member.class)
+                .setMaxResults(maxResults)
+                .getResultList();
+        }
+        return em.createNamedQuery(Member.FIND_NEXT_PAGE_ORDERED_BY_NAME, Member.class)
+            .setParameter("name", afterName)
+            .setParameter("id", afterId)
+            .setMaxResults(maxResults)
+            .getResultList();
+    }
+
+    /**
+     * Retrieves all members ordered by name, as a stream scrolled from the database. Must be invoked in a transaction, which
+     * must not end before the stream is closed. The members are not stored in the second-level cache, and should be detached
+     * once used, so that the persistence context does not grow.
+     */
+    public Stream<Member> streamAllOrderedByName() {
+        return em.createNamedQuery(Member.FIND_FIRST_PAGE_ORDERED_BY_NAME, Member.class)
+            .setHint("javax.persistence.cache.storeMode", CacheStoreMode.BYPASS)
+            .setHint("org.hibernate.fetchSize", 100)
+            .setHint("org.hibernate.readOnly", true)
+            .getResultStream();
+    }
+
+    public void detach(Member member) {
+        em.detach(member);
     }
 }
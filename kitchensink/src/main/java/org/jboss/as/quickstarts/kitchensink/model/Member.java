@@ -18,10 +18,14 @@ package org.jboss.as.quickstarts.kitchensink.model;
 
 import java.io.Serializable;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.Digits;
@@ -37,8 +41,23 @@ import javax.validation.constraints.NotEmpty;
 @Entity
 @XmlRootElement
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = "email"))
+// Members are kept in the second-level cache, and the results of the listing query in the query cache
+@Cacheable
+@NamedQueries({
+    @NamedQuery(name = Member.FIND_ALL_ORDERED_BY_NAME, query = "SELECT m FROM Member m ORDER BY m.name, m.id",
+        hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")),
+    @NamedQuery(name = Member.FIND_FIRST_PAGE_ORDERED_BY_NAME, query = "SELECT m FROM Member m ORDER BY m.name, m.id"),
+    @NamedQuery(name = Member.FIND_NEXT_PAGE_ORDERED_BY_NAME, query = "SELECT m FROM Member m"
+        + " WHERE m.name > :name OR (m.name = :name AND m.id > :id) ORDER BY m.name, m.id"),
+    @NamedQuery(name = Member.FIND_ALL_EMAILS, query = "SELECT m.email FROM Member m")
+})
 public class Member implements Serializable {
 
+    public static final String FIND_ALL_ORDERED_BY_NAME = "Member.findAllOrderedByName";
+    public static final String FIND_FIRST_PAGE_ORDERED_BY_NAME = "Member.findFirstPageOrderedByName";
+    public static final String FIND_NEXT_PAGE_ORDERED_BY_NAME = "Member.findNextPageOrderedByName";
+    public static final String FIND_ALL_EMAILS = "Member.findAllEmails";
+
     @Id
     @GeneratedValue
     private Long id;
@@ -16,6 +16,8 @@
  */
 package org.jboss.as.quickstarts.kitchensink.rest;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -25,23 +27,30 @@ import java.util.logging.Logger;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
-import javax.persistence.NoResultException;
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.ValidationException;
 import javax.validation.Validator;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
+import org.jboss.as.quickstarts.kitchensink.data.MemberEmailIndex;
 import org.jboss.as.quickstarts.kitchensink.data.MemberRepository;
 import org.jboss.as.quickstarts.kitchensink.model.Member;
+import org.jboss.as.quickstarts.kitchensink.service.MemberListing;
 import org.jboss.as.quickstarts.kitchensink.service.MemberRegistration;
 
 /**
@@ -53,6 +62,10 @@ import org.jboss.as.quickstarts.kitchensink.service.MemberRegistration;
 @RequestScoped
 public class MemberResourceRESTService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final JsonGeneratorFactory JSON_GENERATOR_FACTORY = Json.createGeneratorFactory(null);
+
     @Inject
     private Logger log;
 
@@ -62,15 +75,78 @@ public class MemberResourceRESTService {
     @Inject
     private MemberRepository repository;
 
+    @Inject
+    private MemberEmailIndex emailIndex;
+
     @Inject
     MemberRegistration registration;
 
+    @Inject
+    private MemberListing listing;
+
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     public List<Member> listAllMembers() {
         return repository.findAllOrderedByName();
     }
 
+    /**
+     * Retrieves a page of members, ordered by name. The next page is retrieved using the cursor included in the page, which
+     * identifies its last member, thus pages are retrieved in constant time.
+     */
+    @GET
+    @Path("/page")
+    @Produces(MediaType.APPLICATION_JSON)
+    public MemberPage listMembersPage(@QueryParam("cursor") String cursor, @QueryParam("size") @DefaultValue("20") int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        }
+        String afterName = null;
+        Long afterId = null;
+        if (cursor != null) {
+            try {
+                String decodedCursor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = decodedCursor.indexOf(':');
+                afterId = Long.valueOf(decodedCursor.substring(0, separator));
+                afterName = decodedCursor.substring(separator + 1);
+            } catch (RuntimeException e) {
+                throw new WebApplicationException(Response.Status.BAD_REQUEST);
+            }
+        }
+        // retrieve one more member, to know if there is a next page
+        List<Member> members = repository.findPageOrderedByName(afterName, afterId, size + 1);
+        String next = null;
+        if (members.size() > size) {
+            members = members.subList(0, size);
+            Member last = members.get(size - 1);
+            next = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((last.getId() + ":" + last.getName()).getBytes(StandardCharsets.UTF_8));
+        }
+        return new MemberPage(members, next);
+    }
+
+    /**
+     * Retrieves all members, ordered by name. Each member is written to the response as soon as it is read from the database,
+     * thus the members are never all kept in memory.
+     */
+    @GET
+    @Path("/stream")
+    @Produces(MediaType.APPLICATION_JSON)
+    public StreamingOutput streamAllMembers() {
+        return output -> {
+            try (JsonGenerator generator = JSON_GENERATOR_FACTORY.createGenerator(output, StandardCharsets.UTF_8)) {
+                generator.writeStartArray();
+                listing.forEachOrderedByName(member -> generator.writeStartObject()
+                    .write("id", member.getId().longValue())
+                    .write("name", member.getName())
+                    .write("email", member.getEmail())
+                    .write("phoneNumber", member.getPhoneNumber())
+                    .writeEnd());
+                generator.writeEnd();
+            }
+        };
+    }
+
     @GET
     @Path("/{id:[0-9][0-9]*}")
     @Produces(MediaType.APPLICATION_JSON)
@@ -168,18 +244,14 @@ public class MemberResourceRESTService {
 
     /**
      * Checks if a member with the same email address is already registered. This is the only way to easily capture the
-     * "@UniqueConstraint(columnNames = "email")" constraint from the Member class.
+     * "@UniqueConstraint(columnNames = "email")" constraint from the Member class. Members registered concurrently with the
+     * same email address may still both pass this check, in which case the database constraint rejects one of them.
      *
      * @param email The email to check
      * @return True if the email already exists, and false otherwise
      */
     public boolean emailAlreadyExists(String email) {
-        Member member = null;
-        try {
-            member = repository.findByEmail(email);
-        } catch (NoResultException e) {
-            // ignore
-        }
-        return member != null;
+        // the index is kept in memory, no need to query the database
+        return emailIndex.contains(email);
     }
 }
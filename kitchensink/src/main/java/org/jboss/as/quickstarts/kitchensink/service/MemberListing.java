@@ -0,0 +1,46 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.kitchensink.service;
+
+import org.jboss.as.quickstarts.kitchensink.data.MemberRepository;
+import org.jboss.as.quickstarts.kitchensink.model.Member;
+
+import javax.ejb.Stateless;
+import javax.inject.Inject;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// The @Stateless annotation provides the transaction which keeps the members stream open while it is consumed
+@Stateless
+public class MemberListing {
+
+    @Inject
+    private MemberRepository repository;
+
+    /**
+     * Hands each member, ordered by name, to the specified consumer, as the members are scrolled from the database. Each member
+     * is detached once consumed, thus memory usage does not depend on the number of members.
+     */
+    public void forEachOrderedByName(Consumer<Member> consumer) {
+        try (Stream<Member> members = repository.streamAllOrderedByName()) {
+            members.forEach(member -> {
+                consumer.accept(member);
+                repository.detach(member);
+            });
+        }
+    }
+}
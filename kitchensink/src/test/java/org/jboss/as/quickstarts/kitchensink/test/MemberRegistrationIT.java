@@ -16,14 +16,21 @@
  */
 package org.jboss.as.quickstarts.kitchensink.test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Logger;
 
 import javax.inject.Inject;
 
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.as.quickstarts.kitchensink.data.MemberEmailIndex;
+import org.jboss.as.quickstarts.kitchensink.data.MemberRepository;
 import org.jboss.as.quickstarts.kitchensink.model.Member;
 import org.jboss.as.quickstarts.kitchensink.service.MemberRegistration;
 import org.jboss.as.quickstarts.kitchensink.util.Resources;
@@ -39,7 +46,7 @@ public class MemberRegistrationIT {
     @Deployment
     public static Archive<?> createTestArchive() {
         return ShrinkWrap.create(WebArchive.class, "test.war")
-            .addClasses(Member.class, MemberRegistration.class, Resources.class)
+            .addClasses(Member.class, MemberRegistration.class, MemberRepository.class, MemberEmailIndex.class, Resources.class)
             .addAsResource("META-INF/test-persistence.xml", "META-INF/persistence.xml")
             .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml")
             // Deploy our test datasource
@@ -49,6 +56,12 @@ public class MemberRegistrationIT {
     @Inject
     MemberRegistration memberRegistration;
 
+    @Inject
+    MemberEmailIndex memberEmailIndex;
+
+    @Inject
+    MemberRepository memberRepository;
+
     @Inject
     Logger log;
 
@@ -63,4 +76,41 @@ public class MemberRegistrationIT {
         log.info(newMember.getName() + " was persisted with id " + newMember.getId());
     }
 
+    @Test
+    public void testEmailIndex() throws Exception {
+        // the index is loaded from the database, and then updated with each member registered
+        assertFalse(memberEmailIndex.contains("janet@mailinator.com"));
+        Member newMember = new Member();
+        newMember.setName("Janet Doe");
+        newMember.setEmail("janet@mailinator.com");
+        newMember.setPhoneNumber("2125551235");
+        memberRegistration.register(newMember);
+        assertTrue(memberEmailIndex.contains("janet@mailinator.com"));
+    }
+
+    @Test
+    public void testFindPageOrderedByName() throws Exception {
+        String[] names = { "Page Bob", "Page Alice", "Page Carol" };
+        for (int i = 0; i < names.length; i++) {
+            Member newMember = new Member();
+            newMember.setName(names[i]);
+            newMember.setEmail("page" + i + "@mailinator.com");
+            newMember.setPhoneNumber("212555123" + i);
+            memberRegistration.register(newMember);
+        }
+        // retrieving all pages, each right after the last member of the previous one, must provide all members, in order
+        List<Member> members = new ArrayList<>();
+        List<Member> page = memberRepository.findPageOrderedByName(null, null, 2);
+        while (!page.isEmpty()) {
+            members.addAll(page);
+            Member last = page.get(page.size() - 1);
+            page = memberRepository.findPageOrderedByName(last.getName(), last.getId(), 2);
+        }
+        List<Member> allMembers = memberRepository.findAllOrderedByName();
+        assertEquals(allMembers.size(), members.size());
+        for (int i = 0; i < members.size(); i++) {
+            assertEquals(allMembers.get(i).getId(), members.get(i).getId());
+        }
+    }
+
 }
@@ -16,17 +16,25 @@
  */
 package org.jboss.as.quickstarts.managedexecutorservice.concurrency;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.logging.Logger;
 
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
 
 import org.jboss.as.quickstarts.managedexecutorservice.model.Product;
 
 //This class simulates a long running task that could take many seconds to be executed.
-public class LongRunningTask implements Callable<Integer> {
+//The products are analysed in parallel, by at most MAX_CONCURRENT_ANALYSES tasks, and no thread waits for the result.
+public class LongRunningTask {
+
+    // the max number of products analysed at the same time by a single long running task
+    public static final int MAX_CONCURRENT_ANALYSES = 4;
 
     @Inject
     private Logger log;
@@ -34,19 +42,40 @@ public class LongRunningTask implements Callable<Integer> {
     @Inject
     private EntityManager entityManager;
 
-    @Override
+    @Resource
+    private ManagedExecutorService managedExecutorService;
+
     @SuppressWarnings("unchecked")
-    public Integer call() throws Exception {
+    public CompletionStage<Integer> execute() {
         // here we simulate an access to Products listing
         List<Product> products = (List<Product>) entityManager.createQuery("SELECT p FROM Product p").getResultList();
         log.info("Starting a long running task");
+        // split the products in lanes, each lane analyses its products one after another, and all lanes run in parallel
+        int lanes = Math.min(MAX_CONCURRENT_ANALYSES, products.size());
+        List<CompletableFuture<Void>> analyses = new ArrayList<>(lanes);
+        for (int lane = 0; lane < lanes; lane++) {
+            final List<Product> laneProducts = new ArrayList<>();
+            for (int i = lane; i < products.size(); i += lanes) {
+                laneProducts.add(products.get(i));
+            }
+            analyses.add(CompletableFuture.runAsync(() -> analyse(laneProducts), managedExecutorService));
+        }
+        // after executing a long running task we return a result
+        return CompletableFuture.allOf(analyses.toArray(new CompletableFuture[analyses.size()]))
+            .thenApply(v -> (int) (Math.random() * 100));
+    }
+
+    private void analyse(List<Product> products) {
         for (Product product : products) {
             log.info("Analysing " + product.getName());
             // We simulate now a long running task
-            Thread.sleep(3000);
+            try {
+                Thread.sleep(3000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
         }
-        // after executing a long running task we return a result
-        return (int) (Math.random() * 100);
     }
 
 }
@@ -16,6 +16,8 @@
  */
 package org.jboss.as.quickstarts.managedexecutorservice.concurrency;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.logging.Logger;
 
 import javax.inject.Inject;
@@ -25,7 +27,7 @@ import javax.transaction.UserTransaction;
 
 import org.jboss.as.quickstarts.managedexecutorservice.model.Product;
 
-//This Runnable class is used to persist any Product
+//This Runnable class is used to persist any Products, in a single transaction
 public class PersitTask implements Runnable {
 
     @Inject
@@ -37,10 +39,20 @@ public class PersitTask implements Runnable {
     @Inject
     private UserTransaction userTransaction;
 
-    private Product product;
+    private List<Product> products;
+
+    private boolean committed;
 
     public void setProduct(Product product) {
-        this.product = product;
+        setProducts(Collections.singletonList(product));
+    }
+
+    public void setProducts(List<Product> products) {
+        this.products = products;
+    }
+
+    public boolean isCommitted() {
+        return committed;
     }
 
     @Override
@@ -48,10 +60,13 @@ public class PersitTask implements Runnable {
         try {
             log.info("Begin transaction");
             userTransaction.begin();
-            log.info("Persisting a new product");
-            entityManager.persist(product);
+            log.info("Persisting " + products.size() + " new product(s)");
+            for (Product product : products) {
+                entityManager.persist(product);
+            }
             log.info("Commit transaction");
             userTransaction.commit();
+            committed = true;
         } catch (Exception e) {
             log.info("Exception: " + e.getMessage());
             try {
@@ -0,0 +1,132 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.managedexecutorservice.concurrency;
+
+//This class is a snapshot of the ProductIngestionQueue metrics, with commit times in microseconds
+public class ProductIngestionMetrics {
+
+    private int queueDepth;
+
+    private int queueCapacity;
+
+    private long rejectedProducts;
+
+    private long committedProducts;
+
+    private long committedBatches;
+
+    private long failedBatches;
+
+    private long droppedProducts;
+
+    private long maxBatchSize;
+
+    private double averageBatchSize;
+
+    private long maxCommitTimeMicros;
+
+    private double averageCommitTimeMicros;
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public void setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getRejectedProducts() {
+        return rejectedProducts;
+    }
+
+    public void setRejectedProducts(long rejectedProducts) {
+        this.rejectedProducts = rejectedProducts;
+    }
+
+    public long getCommittedProducts() {
+        return committedProducts;
+    }
+
+    public void setCommittedProducts(long committedProducts) {
+        this.committedProducts = committedProducts;
+    }
+
+    public long getCommittedBatches() {
+        return committedBatches;
+    }
+
+    public void setCommittedBatches(long committedBatches) {
+        this.committedBatches = committedBatches;
+    }
+
+    public long getFailedBatches() {
+        return failedBatches;
+    }
+
+    public void setFailedBatches(long failedBatches) {
+        this.failedBatches = failedBatches;
+    }
+
+    public long getDroppedProducts() {
+        return droppedProducts;
+    }
+
+    public void setDroppedProducts(long droppedProducts) {
+        this.droppedProducts = droppedProducts;
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(long maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public double getAverageBatchSize() {
+        return averageBatchSize;
+    }
+
+    public void setAverageBatchSize(double averageBatchSize) {
+        this.averageBatchSize = averageBatchSize;
+    }
+
+    public long getMaxCommitTimeMicros() {
+        return maxCommitTimeMicros;
+    }
+
+    public void setMaxCommitTimeMicros(long maxCommitTimeMicros) {
+        this.maxCommitTimeMicros = maxCommitTimeMicros;
+    }
+
+    public double getAverageCommitTimeMicros() {
+        return averageCommitTimeMicros;
+    }
+
+    public void setAverageCommitTimeMicros(double averageCommitTimeMicros) {
+        this.averageCommitTimeMicros = averageCommitTimeMicros;
+    }
+
+}
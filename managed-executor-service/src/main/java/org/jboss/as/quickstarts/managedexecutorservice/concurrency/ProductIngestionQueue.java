@@ -0,0 +1,204 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.managedexecutorservice.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+
+import org.jboss.as.quickstarts.managedexecutorservice.model.Product;
+
+//This class is a write-behind queue of Products to persist. The queued Products are persisted in batches, each in a single
+//transaction, when there are enough Products to fill a batch, or periodically. The queue is bounded, once full new Products
+//are rejected, until the pending ones are persisted. If a batch fails to be persisted, it is split in two and each half is
+//retried, so that only the Products which fail on their own are dropped, each of them logged and counted.
+//The queue is configured through the following system properties:
+// - managed-executor-service.ingestion.queueCapacity, the max number of pending Products, defaults to 10000
+// - managed-executor-service.ingestion.batchSize, the max number of Products persisted in a single transaction, defaults to 100
+// - managed-executor-service.ingestion.flushInterval, the period in milliseconds between flushes, defaults to 200
+@ApplicationScoped
+public class ProductIngestionQueue {
+
+    public static final String QUEUE_CAPACITY_PROPERTY = "managed-executor-service.ingestion.queueCapacity";
+    public static final String BATCH_SIZE_PROPERTY = "managed-executor-service.ingestion.batchSize";
+    public static final String FLUSH_INTERVAL_PROPERTY = "managed-executor-service.ingestion.flushInterval";
+
+    @Inject
+    private Logger log;
+
+    @Resource
+    private ManagedExecutorService managedExecutorService;
+
+    @Resource
+    private ManagedScheduledExecutorService managedScheduledExecutorService;
+
+    // Here we use Instance so PersistTask can have CDI injections available
+    @Inject
+    private Instance<PersitTask> persisTaskInstance;
+
+    private BlockingQueue<Product> queue;
+
+    private int batchSize;
+
+    private long flushInterval;
+
+    private ScheduledFuture<?> scheduledFlush;
+
+    // ensures a single flush at a time, thus batches are committed in order
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    private final AtomicLong rejectedProducts = new AtomicLong();
+    private final AtomicLong committedProducts = new AtomicLong();
+    private final AtomicLong committedBatches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong droppedProducts = new AtomicLong();
+    private final AtomicLong totalCommitTime = new AtomicLong();
+    private final LongAccumulator maxBatchSize = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxCommitTime = new LongAccumulator(Math::max, 0);
+
+    @PostConstruct
+    void start() {
+        queue = new LinkedBlockingQueue<>(Integer.getInteger(QUEUE_CAPACITY_PROPERTY, 10000));
+        batchSize = Integer.getInteger(BATCH_SIZE_PROPERTY, 100);
+        flushInterval = Long.getLong(FLUSH_INTERVAL_PROPERTY, 200L);
+        log.info("Starting product ingestion queue, with capacity " + queue.remainingCapacity() + ", batch size " + batchSize
+            + " and flush interval " + flushInterval + " ms");
+        scheduledFlush = managedScheduledExecutorService.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval,
+            TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduledFlush.cancel(false);
+        // persist what is still pending
+        flush();
+    }
+
+    /**
+     * Queues a Product to be persisted.
+     *
+     * @return false if the queue is full, and the Product was rejected
+     */
+    public boolean offer(Product product) {
+        if (!queue.offer(product)) {
+            rejectedProducts.incrementAndGet();
+            return false;
+        }
+        if (queue.size() >= batchSize && !flushing.get()) {
+            // a batch is ready, no need to wait for the next scheduled flush
+            managedExecutorService.execute(this::flush);
+        }
+        return true;
+    }
+
+    private void flush() {
+        if (!flushing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Product> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                persist(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        } catch (Exception e) {
+            log.info("Exception: " + e.getMessage());
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    private void persist(List<Product> batch) {
+        if (tryPersist(batch)) {
+            return;
+        }
+        failedBatches.incrementAndGet();
+        if (batch.size() == 1) {
+            Product product = batch.get(0);
+            droppedProducts.incrementAndGet();
+            log.warning("Dropping product " + product.getName() + ", which failed to be persisted");
+            return;
+        }
+        log.info("Failed to persist a batch of " + batch.size() + " product(s), retrying it split in two");
+        // the ids generated by the rolled back transaction are discarded, or the products would be considered detached
+        for (Product product : batch) {
+            product.setId(null);
+        }
+        int half = batch.size() / 2;
+        persist(batch.subList(0, half));
+        persist(batch.subList(half, batch.size()));
+    }
+
+    // Persists the batch in a single transaction, returns false if the transaction was rolled back
+    private boolean tryPersist(List<Product> batch) {
+        PersitTask pt = persisTaskInstance.get();
+        try {
+            pt.setProducts(batch);
+            long start = System.nanoTime();
+            pt.run();
+            long commitTime = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            if (pt.isCommitted()) {
+                committedBatches.incrementAndGet();
+                committedProducts.addAndGet(batch.size());
+                totalCommitTime.addAndGet(commitTime);
+                maxBatchSize.accumulate(batch.size());
+                maxCommitTime.accumulate(commitTime);
+                return true;
+            }
+            return false;
+        } finally {
+            persisTaskInstance.destroy(pt);
+        }
+    }
+
+    /**
+     * Retrieves a snapshot of the queue metrics.
+     */
+    public ProductIngestionMetrics getMetrics() {
+        ProductIngestionMetrics metrics = new ProductIngestionMetrics();
+        metrics.setQueueDepth(queue.size());
+        metrics.setQueueCapacity(queue.size() + queue.remainingCapacity());
+        metrics.setRejectedProducts(rejectedProducts.get());
+        long batches = committedBatches.get();
+        long products = committedProducts.get();
+        metrics.setCommittedBatches(batches);
+        metrics.setCommittedProducts(products);
+        metrics.setFailedBatches(failedBatches.get());
+        metrics.setDroppedProducts(droppedProducts.get());
+        metrics.setMaxBatchSize(maxBatchSize.get());
+        metrics.setAverageBatchSize(batches == 0 ? 0 : (double) products / batches);
+        metrics.setMaxCommitTimeMicros(maxCommitTime.get());
+        metrics.setAverageCommitTimeMicros(batches == 0 ? 0 : (double) totalCommitTime.get() / batches);
+        return metrics;
+    }
+}
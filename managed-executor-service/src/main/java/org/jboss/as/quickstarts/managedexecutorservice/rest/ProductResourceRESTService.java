@@ -18,24 +18,29 @@ package org.jboss.as.quickstarts.managedexecutorservice.rest;
 
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import javax.annotation.Resource;
 import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 import org.jboss.as.quickstarts.managedexecutorservice.concurrency.DeleteTask;
 import org.jboss.as.quickstarts.managedexecutorservice.concurrency.LongRunningTask;
-import org.jboss.as.quickstarts.managedexecutorservice.concurrency.PersitTask;
+import org.jboss.as.quickstarts.managedexecutorservice.concurrency.ProductIngestionMetrics;
+import org.jboss.as.quickstarts.managedexecutorservice.concurrency.ProductIngestionQueue;
 import org.jboss.as.quickstarts.managedexecutorservice.model.Product;
 
 @Path("/products")
@@ -47,9 +52,11 @@ public class ProductResourceRESTService {
     @Resource
     private ManagedExecutorService managedExecutorService;
 
-    // Here we use Instance so PersistTask can have CDI injections available
     @Inject
-    private Instance<PersitTask> persisTaskInstance;
+    private ProductIngestionQueue productIngestionQueue;
+
+    @Inject
+    private EntityManager entityManager;
 
     // Here we use Instance so LongRunningTask can have CDI injections available
     @Inject
@@ -60,8 +67,11 @@ public class ProductResourceRESTService {
     private Instance<DeleteTask> deleteTaskInstance;
 
     /**
-     * Creates a new contact from the values provided and will return a JAX-RS response with either 200 ok, or 400 (BAD REQUEST)
-     * in case of errors.
+     * Creates a new contact from the values provided and will return a JAX-RS response with either 200 ok, 429 (TOO MANY
+     * REQUESTS) if there are too many products waiting to be persisted, or 400 (BAD REQUEST) in case of errors.
+     *
+     * A 200 ok means the product was accepted, not stored: it is persisted later, in a batch, and the committed and dropped
+     * products are counted by the metrics at /products/ingestion/metrics.
      */
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
@@ -69,15 +79,15 @@ public class ProductResourceRESTService {
     public Response createContact(Product product) {
         Response.ResponseBuilder builder = null;
         try {
-            PersitTask pt = persisTaskInstance.get();
-            pt.setProduct(product);
-            // Store the product on a separated Thread
-            log.info("Will create a new Product on other Thread");
-            managedExecutorService.execute(pt);
-
-            // Create an "ok" response with the persisted contact
-            log.info("Returning response");
-            builder = Response.ok();
+            // Queue the product, to be stored in a batch on other Thread
+            log.fine("Will queue a new Product to be created on other Thread");
+            if (productIngestionQueue.offer(product)) {
+                // Create an "ok" response, the product is accepted but not persisted yet
+                builder = Response.ok();
+            } else {
+                log.info("Product ingestion queue is full, rejecting product");
+                builder = Response.status(Response.Status.TOO_MANY_REQUESTS).header("Retry-After", 1);
+            }
         } catch (Exception e) {
             // Handle generic exceptions
             e.printStackTrace();
@@ -87,12 +97,33 @@ public class ProductResourceRESTService {
         return builder.build();
     }
 
+    /**
+     * Retrieves the metrics of the product ingestion queue.
+     */
+    @GET
+    @Path("/ingestion/metrics")
+    @Produces(MediaType.APPLICATION_JSON)
+    public ProductIngestionMetrics getIngestionMetrics() {
+        return productIngestionQueue.getMetrics();
+    }
+
+    /**
+     * Retrieves the number of products stored. Deleting all products is done on other Thread, thus a client which needs to know
+     * when they are deleted must check this count.
+     */
+    @GET
+    @Path("/count")
+    @Produces(MediaType.APPLICATION_JSON)
+    public long countProducts() {
+        return (long) entityManager.createQuery("SELECT COUNT(p) FROM Product p").getSingleResult();
+    }
+
     @GET
     @Path("/longrunningtask")
     public String processLongRunningTask() throws InterruptedException, ExecutionException {
         LongRunningTask lrt = longRunningTaskIntance.get();
         log.info("Submitting a new long running task to be executed");
-        Future<Integer> futureResult = managedExecutorService.submit(lrt);
+        Future<Integer> futureResult = lrt.execute().toCompletableFuture();
         // wait for the result to be available
         while (!futureResult.isDone()) {
             log.info("Waiting for the result to be available...");
@@ -104,6 +135,28 @@ public class ProductResourceRESTService {
         return "Result: " + result;
     }
 
+    /**
+     * Executes a long running task, without keeping the request thread waiting for the result. The response is resumed when the
+     * long running task completes, or with 503 (SERVICE UNAVAILABLE) if it does not complete in time.
+     */
+    @GET
+    @Path("/longrunningtask/async")
+    public void processLongRunningTaskAsync(@Suspended final AsyncResponse asyncResponse) {
+        asyncResponse.setTimeout(5, TimeUnit.MINUTES);
+        LongRunningTask lrt = longRunningTaskIntance.get();
+        log.info("Submitting a new long running task to be executed asynchronously");
+        lrt.execute().whenComplete((result, error) -> {
+            if (error != null) {
+                log.info("Long running task failed: " + error.getMessage());
+                asyncResponse.resume(error);
+            } else {
+                log.info("Result is available. Resuming response..." + result);
+                asyncResponse.resume("Result: " + result);
+            }
+        });
+        log.info("Returning request thread");
+    }
+
     @DELETE
     public Response deleteAllProducts() {
         DeleteTask dt = deleteTaskInstance.get();
@@ -17,7 +17,12 @@
 package org.jboss.as.quickstarts.managedexecutorservice.test;
 
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
+import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.MediaType;
@@ -28,6 +33,7 @@ import org.jboss.arquillian.container.test.api.RunAsClient;
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.arquillian.test.api.ArquillianResource;
 import org.jboss.as.quickstarts.managedexecutorservice.concurrency.DeleteTask;
+import org.jboss.as.quickstarts.managedexecutorservice.concurrency.ProductIngestionMetrics;
 import org.jboss.as.quickstarts.managedexecutorservice.model.Product;
 import org.jboss.as.quickstarts.managedexecutorservice.rest.JaxRsActivator;
 import org.jboss.as.quickstarts.managedexecutorservice.util.Resources;
@@ -35,6 +41,7 @@ import org.jboss.shrinkwrap.api.ShrinkWrap;
 import org.jboss.shrinkwrap.api.asset.EmptyAsset;
 import org.jboss.shrinkwrap.api.spec.WebArchive;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -74,22 +81,138 @@ public class ProductsRestClientIT {
         return sb.toString();
     }
 
+    private ProductIngestionMetrics getIngestionMetrics(Client client) {
+        return client.target(getRequestUrl("/ingestion/metrics")).request(MediaType.APPLICATION_JSON)
+                .get(ProductIngestionMetrics.class);
+    }
+
+    // A created product is only queued to be persisted, thus wait for the ingestion queue to commit it
+    private void waitForCommittedProducts(Client client, long committedProducts) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        while (getIngestionMetrics(client).getCommittedProducts() < committedProducts) {
+            Assert.assertTrue("Products ingestion timed out", System.currentTimeMillis() - start < TimeUnit.MINUTES.toMillis(1));
+            Thread.sleep(100);
+        }
+    }
+
+    // Products are deleted on other Thread, thus wait for all of them to be deleted, so the next test does not see them
+    private void deleteAllProducts(Client client) throws InterruptedException {
+        Response response = client.target(getRequestUrl(null)).request().delete();
+        response.close();
+        Assert.assertEquals(Response.ok().build().getStatus(), response.getStatus());
+        long start = System.currentTimeMillis();
+        while (client.target(getRequestUrl("/count")).request(MediaType.APPLICATION_JSON).get(Long.class) > 0) {
+            Assert.assertTrue("Products deletion timed out", System.currentTimeMillis() - start < TimeUnit.MINUTES.toMillis(1));
+            Thread.sleep(100);
+        }
+    }
+
+    // Each test starts without products, whatever the tests run before left
+    @Before
+    public void deleteProducts() throws InterruptedException {
+        Client client = ClientBuilder.newClient();
+        try {
+            deleteAllProducts(client);
+        } finally {
+            client.close();
+        }
+    }
+
     // This test shows basic operations
     @Test
-    public void testRestResources() {
+    public void testRestResources() throws Exception {
+        long committedBefore = getIngestionMetrics(ClientBuilder.newClient()).getCommittedProducts();
         log.info("creating a new product");
         Product c = new Product();
         c.setName("A Product");
         c.setPrice(100);
         Response response = ClientBuilder.newClient().target(getRequestUrl(null)).request().post(Entity.entity(c, MediaType.APPLICATION_JSON), Response.class);
         Assert.assertEquals(Response.ok().build().getStatus(), response.getStatus());
+        waitForCommittedProducts(ClientBuilder.newClient(), committedBefore + 1);
 
         log.info("Product created. Executing a long running task");
         String result = ClientBuilder.newClient().target(getRequestUrl("/longrunningtask")).request().get(String.class);
         Assert.assertTrue(result.startsWith("Result:"));
 
         log.info("Deleting all products");
-        response = ClientBuilder.newClient().target(getRequestUrl(null)).request().delete();
+        deleteAllProducts(ClientBuilder.newClient());
+    }
+
+    // This test shows many long running tasks executed concurrently, without a request thread for each
+    @Test
+    public void testConcurrentAsyncLongRunningTasks() throws Exception {
+        final int requests = 50;
+        long committedBefore = getIngestionMetrics(ClientBuilder.newClient()).getCommittedProducts();
+        log.info("creating a new product");
+        Product c = new Product();
+        c.setName("Another Product");
+        c.setPrice(100);
+        Response response = ClientBuilder.newClient().target(getRequestUrl(null)).request().post(Entity.entity(c, MediaType.APPLICATION_JSON), Response.class);
         Assert.assertEquals(Response.ok().build().getStatus(), response.getStatus());
+        waitForCommittedProducts(ClientBuilder.newClient(), committedBefore + 1);
+
+        log.info("Product created. Executing " + requests + " concurrent long running tasks");
+        Client client = ClientBuilder.newClient();
+        try {
+            long start = System.currentTimeMillis();
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                results.add(client.target(getRequestUrl("/longrunningtask/async")).request().async().get(String.class));
+            }
+            for (Future<String> result : results) {
+                Assert.assertTrue(result.get(5, TimeUnit.MINUTES).startsWith("Result:"));
+            }
+            log.info(requests + " concurrent long running tasks executed in " + (System.currentTimeMillis() - start) + " ms");
+        } finally {
+            client.close();
+        }
+
+        log.info("Deleting all products");
+        deleteAllProducts(ClientBuilder.newClient());
+    }
+
+    // This test shows products being persisted in batches, and measures the ingestion throughput
+    @Test
+    public void testProductIngestion() throws Exception {
+        final int products = 1000;
+        Client client = ClientBuilder.newClient();
+        try {
+            long committedBefore = getIngestionMetrics(client).getCommittedProducts();
+
+            log.info("creating " + products + " new products");
+            long start = System.currentTimeMillis();
+            for (int i = 0; i < products; i++) {
+                Product c = new Product();
+                c.setName("Product " + i);
+                c.setPrice(i);
+                Response response = client.target(getRequestUrl(null)).request().post(Entity.entity(c, MediaType.APPLICATION_JSON));
+                response.close();
+                if (response.getStatus() == Response.Status.TOO_MANY_REQUESTS.getStatusCode()) {
+                    // back off and retry
+                    Thread.sleep(100);
+                    i--;
+                } else {
+                    Assert.assertEquals(Response.ok().build().getStatus(), response.getStatus());
+                }
+            }
+
+            ProductIngestionMetrics metrics;
+            do {
+                Thread.sleep(100);
+                metrics = getIngestionMetrics(client);
+                Assert.assertTrue("Products ingestion timed out", System.currentTimeMillis() - start < TimeUnit.MINUTES.toMillis(1));
+            } while (metrics.getCommittedProducts() - committedBefore < products);
+            long elapsed = System.currentTimeMillis() - start;
+            log.info(products + " products persisted in " + elapsed + " ms (" + (products * 1000L / Math.max(elapsed, 1))
+                    + " products/sec), average batch size " + metrics.getAverageBatchSize() + ", average commit time "
+                    + metrics.getAverageCommitTimeMicros() + " us");
+            Assert.assertEquals(0, metrics.getFailedBatches());
+            Assert.assertEquals(0, metrics.getDroppedProducts());
+
+            log.info("Deleting all products");
+            deleteAllProducts(client);
+        } finally {
+            client.close();
+        }
     }
 }
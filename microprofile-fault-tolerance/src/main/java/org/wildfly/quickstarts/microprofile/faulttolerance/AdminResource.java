@@ -0,0 +1,50 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2020, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.quickstarts.microprofile.faulttolerance;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * A JAX-RS resource that provides the state and transitions of the availability circuit breaker, and the state of the retry
+ * budget.
+ */
+@Path("/admin")
+@Produces(MediaType.APPLICATION_JSON)
+@ApplicationScoped
+public class AdminResource {
+
+    @Inject
+    CircuitBreakerStatistics circuitBreakerStatistics;
+
+    @Inject
+    RetryBudget retryBudget;
+
+    @GET
+    @Path("/circuit-breaker")
+    public CircuitBreakerStatus circuitBreaker() {
+        CircuitBreakerStatus status = circuitBreakerStatistics.getStatus();
+        status.retryBudgetTokens = retryBudget.getTokens();
+        status.retries = retryBudget.getRetries();
+        status.rejectedRetries = retryBudget.getRejectedRetries();
+        return status;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2020, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.quickstarts.microprofile.faulttolerance;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.annotation.Gauge;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+import org.jboss.logging.Logger;
+
+/**
+ * Tracks the state transitions of the circuit breaker of {@link CoffeeRepositoryService#getAvailability(Coffee)}.
+ * <p>
+ * The MicroProfile Fault Tolerance API does not notify state changes, thus the state is inferred from the outcome of the
+ * calls: a call rejected with a {@link org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException}
+ * means the circuit is open, a call let through while open means it is half-open, and then the outcome of that call
+ * either closes it or opens it again. A transition is therefore observed with the first call after it happened.
+ */
+@ApplicationScoped
+public class CircuitBreakerStatistics {
+
+    private static final Logger LOGGER = Logger.getLogger(CircuitBreakerStatistics.class);
+
+    private static final int MAX_TRANSITIONS = 100;
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private State state = State.CLOSED;
+
+    // the most recent transitions, oldest first
+    private final Deque<CircuitBreakerStatus.Transition> transitions = new ArrayDeque<>();
+
+    private final Map<State, Counter> transitionCounters = new EnumMap<>(State.class);
+
+    @Inject
+    @RegistryType(type = MetricRegistry.Type.APPLICATION)
+    MetricRegistry applicationRegistry;
+
+    @PostConstruct
+    void registerMetrics() {
+        Metadata metadata = Metadata.builder()
+                .withName("availabilityCircuitBreakerTransitions")
+                .withType(MetricType.COUNTER)
+                .withDescription("Number of state transitions of the availability circuit breaker, to each state.")
+                .build();
+        for (State to : State.values()) {
+            transitionCounters.put(to, applicationRegistry.counter(metadata, new Tag("to", to.name().toLowerCase())));
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        if (state == State.OPEN) {
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            transition(State.CLOSED);
+        }
+    }
+
+    public synchronized void recordFailure() {
+        if (state == State.OPEN) {
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            transition(State.OPEN);
+        }
+    }
+
+    public synchronized void recordRejection() {
+        if (state != State.OPEN) {
+            transition(State.OPEN);
+        }
+    }
+
+    @Gauge(name = "availabilityCircuitBreakerState", absolute = true, unit = MetricUnits.NONE,
+            description = "State of the availability circuit breaker: 0 closed, 1 open, 2 half-open.")
+    public synchronized Integer getStateOrdinal() {
+        return state.ordinal();
+    }
+
+    public synchronized CircuitBreakerStatus getStatus() {
+        CircuitBreakerStatus status = new CircuitBreakerStatus();
+        status.state = state;
+        status.transitions = new ArrayList<>(transitions);
+        return status;
+    }
+
+    private void transition(State to) {
+        LOGGER.infof("Availability circuit breaker transition from %s to %s", state, to);
+        if (transitions.size() == MAX_TRANSITIONS) {
+            transitions.removeFirst();
+        }
+        transitions.addLast(new CircuitBreakerStatus.Transition(state, to, System.currentTimeMillis()));
+        transitionCounters.get(to).inc();
+        state = to;
+    }
+}
@@ -18,9 +18,10 @@ package org.wildfly.quickstarts.microprofile.faulttolerance;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import javax.enterprise.context.ApplicationScoped;
@@ -36,17 +37,23 @@ public class CoffeeRepositoryService {
 
     private static final Logger LOGGER = Logger.getLogger(CoffeeRepositoryService.class);
 
-    private Map<Integer, Coffee> coffeeList = new HashMap<>();
+    // the coffees never change, thus concurrent requests read immutable snapshots without any synchronization
+    private final Map<Integer, Coffee> coffeeList;
 
-    private Map<Integer, Integer> availability = new HashMap<>();
+    private final List<Coffee> allCoffees;
+
+    private final Map<Integer, Integer> availability = new ConcurrentHashMap<>();
 
     private AtomicLong counter = new AtomicLong(0);
 
 
     public CoffeeRepositoryService() {
-        coffeeList.put(1, new Coffee(1, "Fernandez Espresso", "Colombia", 23));
-        coffeeList.put(2, new Coffee(2, "La Scala Whole Beans", "Bolivia", 18));
-        coffeeList.put(3, new Coffee(3, "Dak Lak Filter", "Vietnam", 25));
+        Map<Integer, Coffee> coffees = new LinkedHashMap<>();
+        coffees.put(1, new Coffee(1, "Fernandez Espresso", "Colombia", 23));
+        coffees.put(2, new Coffee(2, "La Scala Whole Beans", "Bolivia", 18));
+        coffees.put(3, new Coffee(3, "Dak Lak Filter", "Vietnam", 25));
+        coffeeList = Collections.unmodifiableMap(coffees);
+        allCoffees = Collections.unmodifiableList(new ArrayList<>(coffees.values()));
 
         availability.put(1, 20);
         availability.put(2, 7);
@@ -54,7 +61,7 @@ public class CoffeeRepositoryService {
     }
 
     public List<Coffee> getAllCoffees() {
-        return new ArrayList<>(coffeeList.values());
+        return allCoffees;
     }
 
     public Coffee getCoffeeById(Integer id) {
@@ -65,7 +72,7 @@ public class CoffeeRepositoryService {
         if (id == null) {
             return Collections.emptyList();
         }
-        return coffeeList.values().stream()
+        return allCoffees.stream()
                 .filter(coffee -> !id.equals(coffee.id))
                 .limit(2)
                 .collect(Collectors.toList());
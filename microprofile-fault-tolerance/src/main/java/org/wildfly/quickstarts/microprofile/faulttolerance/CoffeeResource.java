@@ -18,7 +18,12 @@ package org.wildfly.quickstarts.microprofile.faulttolerance;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -28,16 +33,19 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
+import org.eclipse.microprofile.faulttolerance.Asynchronous;
+import org.eclipse.microprofile.faulttolerance.Bulkhead;
 import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
 import org.eclipse.microprofile.faulttolerance.Fallback;
 import org.eclipse.microprofile.faulttolerance.Retry;
 import org.eclipse.microprofile.faulttolerance.Timeout;
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
 import org.jboss.logging.Logger;
 import org.jboss.resteasy.annotations.jaxrs.PathParam;
 
 /**
  * A JAX-RS resource that provides information about kinds of coffees we have on store and numbers of packages available.
- * Demonstrates {@link Retry}, {@link CircuitBreaker}, {@link Timeout} and {@link Fallback} policies.
+ * Demonstrates {@link Retry}, {@link CircuitBreaker}, {@link Timeout}, {@link Fallback} and {@link Bulkhead} policies.
  *
  * @author Radoslav Husar
  */
@@ -48,26 +56,57 @@ public class CoffeeResource {
 
     private static final Logger LOGGER = Logger.getLogger(CoffeeResource.class);
 
+    private static final int MAX_RETRIES = 4;
+
+    // exponential backoff before each retry of coffees(), with full jitter
+    private static final long BACKOFF_BASE_MILLIS = 10;
+    private static final long BACKOFF_MAX_MILLIS = 200;
+
     @Inject
     CoffeeRepositoryService coffeeRepository;
 
+    @Inject
+    RetryBudget retryBudget;
+
+    @Inject
+    RetryAttempts retryAttempts;
+
+    @Inject
+    CircuitBreakerStatistics circuitBreakerStatistics;
+
     private AtomicLong counter = new AtomicLong(0);
 
     private Float failRatio = 0.5f;
 
+    // the last recommendations successfully provided for each existing coffee, served by the fallbacks
+    private final Map<Integer, List<Coffee>> lastKnownRecommendations = new ConcurrentHashMap<>();
+
     /**
      * Provides list of all our coffees.
      * <p>
      * This method fails about 50% of time. However, in case of a failure, the method is automatically re-invoked again
      * (up to 4 times), thanks to the {@link Retry} annotation. That means that a user is rarely exposed to a
      * failure, since the probability of a failure occurring 4 times in row is fairly low.
+     * <p>
+     * Each retry waits for an exponentially growing, randomized delay, and takes a token from the {@link RetryBudget}.
+     * When the budget is exhausted, e.g. during a sustained failure, the failure is not retried, the
+     * {@link RetryBudgetExhaustedException} aborts the {@link Retry} policy.
      */
     @GET
-    @Retry(maxRetries = 4, retryOn = RuntimeException.class)
+    @Retry(maxRetries = MAX_RETRIES, retryOn = RuntimeException.class, abortOn = RetryBudgetExhaustedException.class)
     public List<Coffee> coffees() {
         final Long invocationNumber = counter.getAndIncrement();
 
-        maybeFail(String.format("CoffeeResource#coffees() invocation #%d failed", invocationNumber));
+        if (retryAttempts.isFirstAttempt()) {
+            retryBudget.deposit();
+        }
+
+        try {
+            maybeFail(String.format("CoffeeResource#coffees() invocation #%d failed", invocationNumber));
+        } catch (RuntimeException e) {
+            beforeRetry(e);
+            throw e;
+        }
 
         LOGGER.infof("CoffeeResource#coffees() invocation #%d returning successfully", invocationNumber);
         return coffeeRepository.getAllCoffees();
@@ -118,9 +157,15 @@ public class CoffeeResource {
 
         try {
             Integer availability = coffeeRepository.getAvailability(coffee);
+            circuitBreakerStatistics.recordSuccess();
             LOGGER.infof("CoffeeResource#availability() invocation #%d returning successfully", invocationNumber);
             return Response.ok(availability).build();
         } catch (RuntimeException e) {
+            if (e instanceof CircuitBreakerOpenException) {
+                circuitBreakerStatistics.recordRejection();
+            } else {
+                circuitBreakerStatistics.recordFailure();
+            }
             String message = e.getClass().getSimpleName() + ": " + e.getMessage();
             LOGGER.errorf("CoffeeResource#availability() invocation #%d failed: %s", invocationNumber, message);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -140,7 +185,7 @@ public class CoffeeResource {
         try {
             randomDelay();
             LOGGER.infof("CoffeeResource#recommendations() invocation #%d returning successfully", invocationNumber);
-            return coffeeRepository.getRecommendations(id);
+            return getRecommendations(id);
         } catch (InterruptedException e) {
             LOGGER.errorf("CoffeeResource#recommendations() invocation #%d timed out after %d ms",
                     invocationNumber, System.currentTimeMillis() - started);
@@ -153,8 +198,64 @@ public class CoffeeResource {
      */
     public List<Coffee> fallbackRecommendations(int id) {
         LOGGER.info("Falling back to RecommendationResource#fallbackRecommendations()");
-        // safe bet, return something that everybody likes
-        return Collections.singletonList(coffeeRepository.getCoffeeById(1));
+        return getLastKnownRecommendations(id);
+    }
+
+    /**
+     * Provides recommendations without blocking the request thread.
+     * <p>
+     * Thanks to the {@link Asynchronous} annotation the method is executed by a separate thread, and the {@link Bulkhead}
+     * annotation isolates it in a pool of at most 10 concurrent executions, with up to 50 more waiting. This method also fails
+     * about 50% of time, and in case of a failure, a timeout, or a full bulkhead, the last recommendations successfully
+     * provided are returned.
+     */
+    @GET
+    @Path("/{id}/recommendations/async")
+    @Asynchronous
+    @Bulkhead(value = 10, waitingTaskQueue = 50)
+    @Timeout(250)
+    @Fallback(fallbackMethod = "fallbackRecommendationsAsync")
+    public CompletionStage<List<Coffee>> recommendationsAsync(@PathParam("id") int id) {
+        long started = System.currentTimeMillis();
+        final long invocationNumber = counter.getAndIncrement();
+
+        maybeFail(String.format("CoffeeResource#recommendationsAsync() invocation #%d failed", invocationNumber));
+
+        try {
+            randomDelay();
+            LOGGER.infof("CoffeeResource#recommendationsAsync() invocation #%d returning successfully", invocationNumber);
+            return CompletableFuture.completedFuture(getRecommendations(id));
+        } catch (InterruptedException e) {
+            LOGGER.errorf("CoffeeResource#recommendationsAsync() invocation #%d timed out after %d ms",
+                    invocationNumber, System.currentTimeMillis() - started);
+            return null;
+        }
+    }
+
+    /**
+     * A fallback method for asynchronous recommendations.
+     */
+    public CompletionStage<List<Coffee>> fallbackRecommendationsAsync(int id) {
+        LOGGER.info("Falling back to RecommendationResource#fallbackRecommendationsAsync()");
+        return CompletableFuture.completedFuture(getLastKnownRecommendations(id));
+    }
+
+    private List<Coffee> getRecommendations(int id) {
+        List<Coffee> recommendations = coffeeRepository.getRecommendations(id);
+        // the id comes straight from the request path, only cache known coffees so the map stays bounded
+        if (coffeeRepository.getCoffeeById(id) != null) {
+            lastKnownRecommendations.put(id, recommendations);
+        }
+        return recommendations;
+    }
+
+    private List<Coffee> getLastKnownRecommendations(int id) {
+        List<Coffee> recommendations = lastKnownRecommendations.get(id);
+        if (recommendations == null) {
+            // safe bet, return something that everybody likes
+            recommendations = Collections.singletonList(coffeeRepository.getCoffeeById(1));
+        }
+        return recommendations;
     }
 
 
@@ -166,6 +267,28 @@ public class CoffeeResource {
         }
     }
 
+    /**
+     * Waits before the failure of an attempt is retried, or throws a {@link RetryBudgetExhaustedException} if it should
+     * not be retried.
+     */
+    private void beforeRetry(RuntimeException failure) {
+        int failures = retryAttempts.failed();
+        if (failures > MAX_RETRIES) {
+            // the last attempt failed, there is no retry left
+            return;
+        }
+        if (!retryBudget.tryAcquire()) {
+            throw new RetryBudgetExhaustedException(failure);
+        }
+        long maxDelay = Math.min(BACKOFF_MAX_MILLIS, BACKOFF_BASE_MILLIS << (failures - 1));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxDelay + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RetryBudgetExhaustedException(failure);
+        }
+    }
+
     private void randomDelay() throws InterruptedException {
         // introduce some artificial delay
         Thread.sleep(new Random().nextInt(500));
@@ -0,0 +1,42 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2020, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.quickstarts.microprofile.faulttolerance;
+
+import javax.enterprise.context.RequestScoped;
+
+/**
+ * Counts the failed attempts to serve the current request, which are retried by the {@link
+ * org.eclipse.microprofile.faulttolerance.Retry} policy within the same request.
+ */
+@RequestScoped
+public class RetryAttempts {
+
+    private int failures;
+
+    public boolean isFirstAttempt() {
+        return failures == 0;
+    }
+
+    /**
+     * Records a failed attempt.
+     *
+     * @return the number of failed attempts so far
+     */
+    public int failed() {
+        return ++failures;
+    }
+}
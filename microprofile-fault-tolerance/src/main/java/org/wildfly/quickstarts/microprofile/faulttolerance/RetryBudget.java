@@ -0,0 +1,95 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2020, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.quickstarts.microprofile.faulttolerance;
+
+import java.util.concurrent.atomic.AtomicLong;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.annotation.Gauge;
+
+/**
+ * A retry budget, which caps retries as a fraction of the live traffic, shared by all requests.
+ * <p>
+ * The budget is a token bucket: each request adds a fraction of a token, up to a maximum, and each retry takes a whole
+ * token. During a sustained failure the bucket is quickly emptied, and from then on only a fraction of the requests are
+ * retried, thus the load on the failing dependency stays bounded, instead of being multiplied by the maximum number of
+ * retries.
+ */
+@ApplicationScoped
+public class RetryBudget {
+
+    // the tokens are counted in thousandths, so that fractions of a token can be added atomically
+    private static final long TOKEN = 1000;
+
+    // the maximum number of tokens, which allows bursts of retries after a quiet period
+    static final long MAX_TOKENS = 10;
+
+    // the fraction of a token added by each request, i.e. at most 1 retry per 5 requests after the bucket is empty
+    static final double RETRY_RATIO = 0.2;
+
+    private final AtomicLong tokens = new AtomicLong(MAX_TOKENS * TOKEN);
+
+    private final AtomicLong retries = new AtomicLong();
+
+    private final AtomicLong rejectedRetries = new AtomicLong();
+
+    /**
+     * Adds the budget earned by a request.
+     */
+    public void deposit() {
+        long deposit = (long) (RETRY_RATIO * TOKEN);
+        tokens.accumulateAndGet(deposit, (current, added) -> Math.min(current + added, MAX_TOKENS * TOKEN));
+    }
+
+    /**
+     * Takes a token to perform a retry, if there is one.
+     *
+     * @return true if the retry may be performed, false if the budget is exhausted
+     */
+    public boolean tryAcquire() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN) {
+                rejectedRetries.incrementAndGet();
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN));
+        retries.incrementAndGet();
+        return true;
+    }
+
+    @Gauge(name = "retryBudgetTokens", absolute = true, unit = MetricUnits.NONE, description = "Retries currently allowed by the retry budget.")
+    public Double getTokens() {
+        return (double) tokens.get() / TOKEN;
+    }
+
+    @Gauge(name = "retryBudgetRetries", absolute = true, unit = MetricUnits.NONE, description = "Retries allowed by the retry budget.")
+    public Long getRetries() {
+        return retries.get();
+    }
+
+    @Gauge(name = "retryBudgetRejectedRetries", absolute = true, unit = MetricUnits.NONE, description = "Retries rejected by the retry budget.")
+    public Long getRejectedRetries() {
+        return rejectedRetries.get();
+    }
+
+    void reset() {
+        tokens.set(MAX_TOKENS * TOKEN);
+    }
+}
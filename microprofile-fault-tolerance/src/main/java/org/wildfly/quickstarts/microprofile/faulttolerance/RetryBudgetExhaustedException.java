@@ -0,0 +1,29 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2020, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.quickstarts.microprofile.faulttolerance;
+
+/**
+ * Thrown instead of a failure that may not be retried, since the {@link RetryBudget} is exhausted.
+ */
+public class RetryBudgetExhaustedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RetryBudgetExhaustedException(Throwable cause) {
+        super("Retry budget exhausted, not retrying: " + cause.getMessage(), cause);
+    }
+}
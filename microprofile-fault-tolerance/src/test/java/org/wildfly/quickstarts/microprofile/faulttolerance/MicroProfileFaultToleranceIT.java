@@ -19,6 +19,7 @@ package org.wildfly.quickstarts.microprofile.faulttolerance;
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.logging.Logger;
 import org.jboss.shrinkwrap.api.ShrinkWrap;
 import org.jboss.shrinkwrap.api.spec.WebArchive;
 import org.junit.After;
@@ -33,11 +34,19 @@ import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @RunWith(Arquillian.class)
 public class MicroProfileFaultToleranceIT {
 
+    private static final Logger LOGGER = Logger.getLogger(MicroProfileFaultToleranceIT.class);
+
     private static final String APP_NAME = "microprofile-fault-tolerance";
 
     @ArquillianResource
@@ -46,6 +55,9 @@ public class MicroProfileFaultToleranceIT {
     @Inject
     private CoffeeResource coffeeResource;
 
+    @Inject
+    private RetryBudget retryBudget;
+
     private Client client;
 
     @Deployment
@@ -89,6 +101,48 @@ public class MicroProfileFaultToleranceIT {
         }
     }
 
+    @Test
+    public void testCoffeeListSustainedFailure() {
+        final int requests = 100;
+        coffeeResource.setFailRatio(1f);
+        coffeeResource.resetCounter();
+        retryBudget.reset();
+
+        try {
+            for (int i = 0; i < requests; i++) {
+                try (Response response = this.getResponse("/coffee")) {
+                    Assert.assertEquals(500, response.getStatus());
+                }
+            }
+
+            // without the retry budget each request would be attempted 5 times
+            long attempts = coffeeResource.getCounter();
+            long maxAttempts = requests + RetryBudget.MAX_TOKENS + (long) Math.ceil(requests * RetryBudget.RETRY_RATIO);
+            LOGGER.infof("%d requests failing during a sustained failure caused %d attempts", requests, attempts);
+            Assert.assertTrue("Too many attempts: " + attempts, attempts <= maxAttempts);
+            Assert.assertTrue(retryBudget.getRejectedRetries() > 0);
+        } finally {
+            retryBudget.reset();
+        }
+    }
+
+    @Test
+    public void testCircuitBreakerStatus() {
+        // the availability alternates 2 successful and 2 failed invocations, then the circuit breaker opens
+        for (int i = 0; i < 5; i++) {
+            this.getResponse("/coffee/1/availability").close();
+        }
+
+        try (Response response = this.getResponse("/admin/circuit-breaker")) {
+            Assert.assertEquals(200, response.getStatus());
+
+            CircuitBreakerStatus status = response.readEntity(CircuitBreakerStatus.class);
+            Assert.assertEquals(CircuitBreakerStatistics.State.OPEN, status.state);
+            Assert.assertFalse(status.transitions.isEmpty());
+            Assert.assertEquals(CircuitBreakerStatistics.State.OPEN, status.transitions.get(status.transitions.size() - 1).to);
+        }
+    }
+
     @Test
     public void testCoffeeDetail() {
         coffeeResource.setFailRatio(0f);
@@ -111,6 +165,55 @@ public class MicroProfileFaultToleranceIT {
         }
     }
 
+    @Test
+    public void testRecommendationsAsyncLoad() throws Exception {
+        final int requests = 400;
+        // more concurrent callers than the bulkhead admits, 10 running and 50 waiting, so some calls are rejected too
+        final int concurrency = 100;
+        coffeeResource.setFailRatio(0.5f);
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<Long>> latencies = new ArrayList<>(requests);
+            long started = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                latencies.add(executor.submit(() -> {
+                    // the shared client is not meant to be used by concurrent threads
+                    Client requestClient = ClientBuilder.newClient();
+                    try {
+                        long requestStarted = System.nanoTime();
+                        try (Response response = requestClient.target(deploymentUrl.toString())
+                                .path("/coffee/2/recommendations/async")
+                                .request()
+                                .get()) {
+                            // failures, timeouts and rejections by the bulkhead are all handled by the fallback
+                            Assert.assertEquals(200, response.getStatus());
+                            List<Coffee> entity = response.readEntity(new GenericType<List<Coffee>>() {});
+                            Assert.assertFalse(entity.isEmpty());
+                        }
+                        return System.nanoTime() - requestStarted;
+                    } finally {
+                        requestClient.close();
+                    }
+                }));
+            }
+            List<Long> sortedLatencies = new ArrayList<>(requests);
+            for (Future<Long> latency : latencies) {
+                sortedLatencies.add(latency.get(1, TimeUnit.MINUTES));
+            }
+            long elapsed = System.nanoTime() - started;
+            Collections.sort(sortedLatencies);
+            long p99 = sortedLatencies.get((int) Math.ceil(requests * 0.99) - 1);
+
+            LOGGER.infof("Async recommendations with 50%% failures: %.1f requests/s, p99 %d ms",
+                    requests * 1e9 / elapsed, TimeUnit.NANOSECONDS.toMillis(p99));
+            // the timeout bounds the latency, regardless of failures
+            Assert.assertTrue("p99 latency too high: " + p99 + " ns", p99 < TimeUnit.SECONDS.toNanos(2));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private Response getResponse(String path) {
         return client.target(deploymentUrl.toString())
                 .path(path)
@@ -0,0 +1,99 @@
+package org.wildfly.quickstarts.microprofile.metrics;
+
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency of each resource method in a {@link RollingLatencyHistogram}, and exposes its percentiles as the
+ * {@code requestLatency} application gauges, tagged with the resource method and the quantile.
+ *
+ * The rolling window defaults to 60 seconds, split in 6 slices, and may be configured with the
+ * {@code microprofile-metrics.latency.window} (seconds) and {@code microprofile-metrics.latency.windowSlices} system
+ * properties.
+ */
+@Provider
+@ApplicationScoped
+public class LatencyFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    static final String METRIC_NAME = "requestLatency";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final String START_PROPERTY = LatencyFilter.class.getName() + ".start";
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(Long.getLong("microprofile-metrics.latency.window", 60));
+
+    private static final int WINDOW_SLICES = Integer.getInteger("microprofile-metrics.latency.windowSlices", 6);
+
+    private final ConcurrentMap<Method, RollingLatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Inject
+    @RegistryType(type = MetricRegistry.Type.APPLICATION)
+    private MetricRegistry applicationRegistry;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        requestContext.setProperty(START_PROPERTY, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        Object start = requestContext.getProperty(START_PROPERTY);
+        Method resourceMethod = resourceInfo.getResourceMethod();
+        if (start == null || resourceMethod == null) {
+            // the request did not match a resource method
+            return;
+        }
+        long now = System.nanoTime();
+        getHistogram(resourceMethod).record(now - (Long) start, now);
+    }
+
+    private RollingLatencyHistogram getHistogram(Method resourceMethod) {
+        RollingLatencyHistogram histogram = histograms.get(resourceMethod);
+        if (histogram == null) {
+            histogram = new RollingLatencyHistogram(WINDOW_NANOS, WINDOW_SLICES);
+            RollingLatencyHistogram existing = histograms.putIfAbsent(resourceMethod, histogram);
+            if (existing != null) {
+                return existing;
+            }
+            register(resourceMethod, histogram);
+        }
+        return histogram;
+    }
+
+    private void register(Method resourceMethod, RollingLatencyHistogram histogram) {
+        Metadata metadata = Metadata.builder()
+            .withName(METRIC_NAME)
+            .withType(MetricType.GAUGE)
+            .withUnit(MetricUnits.NANOSECONDS)
+            .withDescription("Percentiles of the latency of the requests to a resource method, over a rolling window.")
+            .build();
+        Tag resource = new Tag("resource", resourceMethod.getDeclaringClass().getSimpleName() + "." + resourceMethod.getName());
+        for (double quantile : QUANTILES) {
+            Gauge<Long> gauge = () -> histogram.getValueAtQuantile(quantile);
+            applicationRegistry.register(metadata, gauge, resource, new Tag("quantile", Double.toString(quantile)));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.wildfly.quickstarts.microprofile.metrics;
+
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.annotation.Gauge;
+import org.eclipse.microprofile.metrics.annotation.Metric;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Provides the smallest divisor of numbers, in a way that avoids the trial division of most numbers.
+ *
+ * All numbers below {@link #SIEVE_LIMIT} are classified as prime or composite once, by a segmented sieve of Eratosthenes,
+ * and the smallest divisors computed for other numbers are kept in a bounded LRU cache.
+ */
+@ApplicationScoped
+public class PrimeCache {
+
+    // the sieve covers all numbers below 2^22, keeping only odd numbers it takes 256 KB
+    static final int SIEVE_LIMIT = 1 << 22;
+
+    // sieving a segment at a time keeps the memory written in the CPU cache
+    private static final int SEGMENT_SIZE = 1 << 15;
+
+    private static final int MAX_RECENT_ANSWERS = 10_000;
+
+    // bit i is set if the odd number 2i+1 is composite
+    private final BitSet oddComposites = new BitSet(SIEVE_LIMIT / 2);
+
+    // all primes below SIEVE_LIMIT, used to divide larger numbers
+    private int[] primes;
+
+    private final Map<Long, Long> recentAnswers = new LinkedHashMap<Long, Long>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > MAX_RECENT_ANSWERS;
+        }
+    };
+
+    @Inject
+    @Metric(name = "primeCacheHits", absolute = true, description = "How many prime checks were answered by the sieve or the cache of recent answers.")
+    private Counter hits;
+
+    @Inject
+    @Metric(name = "primeCacheMisses", absolute = true, description = "How many prime checks required trial division.")
+    private Counter misses;
+
+    @PostConstruct
+    void sieve() {
+        // the primes up to the square root of the limit are enough to cross out all composites
+        int sqrt = (int) Math.sqrt(SIEVE_LIMIT);
+        boolean[] baseComposites = new boolean[sqrt + 1];
+        List<Integer> basePrimes = new ArrayList<>();
+        for (int i = 3; i <= sqrt; i += 2) {
+            if (!baseComposites[i]) {
+                basePrimes.add(i);
+                for (int j = i * i; j <= sqrt; j += 2 * i) {
+                    baseComposites[j] = true;
+                }
+            }
+        }
+
+        oddComposites.set(0);
+        for (int low = 0; low < SIEVE_LIMIT; low += SEGMENT_SIZE) {
+            int high = Math.min(low + SEGMENT_SIZE, SIEVE_LIMIT);
+            for (int prime : basePrimes) {
+                // the first odd multiple in the segment, smaller multiples were crossed out by smaller primes
+                int multiple = Math.max(prime * prime, (low + prime - 1) / prime * prime);
+                if (multiple % 2 == 0) {
+                    multiple += prime;
+                }
+                for (; multiple < high; multiple += 2 * prime) {
+                    oddComposites.set(multiple / 2);
+                }
+            }
+        }
+
+        primes = new int[SIEVE_LIMIT / 2 - oddComposites.cardinality() + 1];
+        primes[0] = 2;
+        int count = 1;
+        for (int i = oddComposites.nextClearBit(1); i < SIEVE_LIMIT / 2; i = oddComposites.nextClearBit(i + 1)) {
+            primes[count++] = 2 * i + 1;
+        }
+    }
+
+    /**
+     * Retrieves the smallest divisor, greater than 1, of the specified number.
+     *
+     * @param number a number greater than 1
+     * @return the number itself if it is prime
+     */
+    public long smallestDivisor(long number) {
+        if (number % 2 == 0) {
+            hits.inc();
+            return 2;
+        }
+        if (number < SIEVE_LIMIT && !oddComposites.get((int) (number / 2))) {
+            hits.inc();
+            return number;
+        }
+        Long divisor;
+        synchronized (recentAnswers) {
+            divisor = recentAnswers.get(number);
+        }
+        if (divisor != null) {
+            hits.inc();
+            return divisor;
+        }
+        misses.inc();
+        divisor = trialDivision(number);
+        synchronized (recentAnswers) {
+            recentAnswers.put(number, divisor);
+        }
+        return divisor;
+    }
+
+    @Gauge(name = "primeCacheHitRatio", absolute = true, unit = MetricUnits.NONE, description = "Ratio of prime checks answered by the sieve or the cache of recent answers.")
+    public Double hitRatio() {
+        long hitCount = hits.getCount();
+        long total = hitCount + misses.getCount();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    private long trialDivision(long number) {
+        // compare using division, squaring the divisor could overflow
+        for (int prime : primes) {
+            if (prime > number / prime) {
+                return number;
+            }
+            if (number % prime == 0) {
+                return prime;
+            }
+        }
+        for (long divisor = SIEVE_LIMIT + 1; divisor <= number / divisor; divisor += 2) {
+            if (number % divisor == 0) {
+                return divisor;
+            }
+        }
+        return number;
+    }
+}
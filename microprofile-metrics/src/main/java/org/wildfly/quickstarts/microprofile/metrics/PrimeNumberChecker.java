@@ -1,6 +1,7 @@
 package org.wildfly.quickstarts.microprofile.metrics;
 
 import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Histogram;
 import org.eclipse.microprofile.metrics.Metadata;
 import org.eclipse.microprofile.metrics.MetricRegistry;
 import org.eclipse.microprofile.metrics.MetricUnits;
@@ -14,19 +15,36 @@ import org.eclipse.microprofile.metrics.annotation.Timed;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.Arrays;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.stream.Collectors;
 
 @Path("/")
 @ApplicationScoped
 public class PrimeNumberChecker {
 
     private static final long COUNTER_INCREMENT = 42;
-    private long highestPrimeNumberSoFar = 2;
+    private static final int MAX_BATCH_SIZE = 10_000;
+
+    // updated by concurrent requests, without locking
+    private final LongAccumulator highestPrimeNumberSoFar = new LongAccumulator(Math::max, 2);
+
+    @Inject
+    private PrimeCache primeCache;
+
+    @Inject
+    @Metric(name = "primeBatchSize", absolute = true, description = "How many numbers are checked by each batch request.")
+    private Histogram batchSize;
 
     @GET
     @Path("/prime/{number}")
@@ -35,6 +53,37 @@ public class PrimeNumberChecker {
     @Timed(name = "checksTimer", absolute = true, description = "A measure of how long it takes to perform the primality test.", unit = MetricUnits.MILLISECONDS)
     @Metered(name = "checkIfPrimeFrequency", absolute = true)
     public String checkIfPrime(@PathParam("number") long number) {
+        return check(number);
+    }
+
+    @POST
+    @Path("/primes")
+    @Consumes(MediaType.TEXT_PLAIN)
+    @Produces(MediaType.TEXT_PLAIN)
+    @Timed(name = "batchChecksTimer", absolute = true, description = "A measure of how long it takes to perform the primality test of a batch of numbers.", unit = MetricUnits.MILLISECONDS)
+    public String checkIfPrimes(String numbers) {
+        long[] batch;
+        try {
+            batch = Arrays.stream(numbers.trim().split("[\\s,]+"))
+                .filter(number -> !number.isEmpty())
+                .mapToLong(Long::parseLong)
+                .toArray();
+        } catch (NumberFormatException e) {
+            throw new WebApplicationException("Only numbers, separated by whitespace or commas, can be checked.", Response.Status.BAD_REQUEST);
+        }
+        if (batch.length > MAX_BATCH_SIZE) {
+            throw new WebApplicationException("At most " + MAX_BATCH_SIZE + " numbers can be checked at once.", Response.Status.BAD_REQUEST);
+        }
+        batchSize.update(batch.length);
+
+        // the checks are independent and CPU bound, thus spread across the available cores
+        return Arrays.stream(batch)
+            .parallel()
+            .mapToObj(this::check)
+            .collect(Collectors.joining("\n"));
+    }
+
+    private String check(long number) {
         if (number < 1) {
             return "Only natural numbers can be prime numbers.";
         }
@@ -43,30 +92,20 @@ public class PrimeNumberChecker {
             return "1 is not prime.";
         }
 
-        if (number == 2) {
-            return "2 is prime.";
+        long divisor = primeCache.smallestDivisor(number);
+        if (divisor != number) {
+            return divisor == 2 ? number + " is not prime, it is divisible by 2."
+                : number + " is not prime, is divisible by " + divisor + ".";
         }
 
-        if (number % 2 == 0) {
-            return number + " is not prime, it is divisible by 2.";
-        }
-
-        for (int i = 3; i < Math.floor(Math.sqrt(number)) + 1; i = i + 2) {
-            if (number % i == 0) {
-                return number + " is not prime, is divisible by " + i + ".";
-            }
-        }
-
-        if (number > highestPrimeNumberSoFar) {
-            highestPrimeNumberSoFar = number;
-        }
+        highestPrimeNumberSoFar.accumulate(number);
 
         return number + " is prime.";
     }
 
     @Gauge(name = "highestPrimeNumberSoFar", unit = MetricUnits.NONE, description = "Highest prime number so far.")
     public Long highestPrimeNumberSoFar() {
-        return highestPrimeNumberSoFar;
+        return highestPrimeNumberSoFar.get();
     }
 
     private CountDownLatch countDownLatch = new CountDownLatch(1);
@@ -0,0 +1,124 @@
+package org.wildfly.quickstarts.microprofile.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies, in nanoseconds, over a rolling time window.
+ *
+ * Like HdrHistogram, values are counted in log-linear buckets: values below 128 have a bucket each, and larger values
+ * share buckets which width doubles with each power of two, keeping the 7 most significant bits of the value. Each power
+ * of two is thus split into 64 buckets, and as the highest value of a bucket is reported, the relative error is at most
+ * 1/64, about 1.6%. Values from 0 to 2^40 ns (about 18 minutes) are covered by 2240 buckets, larger values are counted as
+ * 2^40 ns.
+ *
+ * The window is split in slices, each with its own buckets. Recording a value increments a single atomic counter of the
+ * current slice, without locking or allocating memory. When the window rolls over, the oldest slice is reset and reused for
+ * the new period, so the window reported covers the current slice and all previous slices still in it.
+ */
+public class RollingLatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int HIGHEST_TRACKABLE_BITS = 40;
+    private static final long HIGHEST_TRACKABLE_VALUE = (1L << HIGHEST_TRACKABLE_BITS) - 1;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT
+        + (HIGHEST_TRACKABLE_BITS - SUB_BUCKET_BITS) * SUB_BUCKET_HALF_COUNT;
+
+    private final Slice[] slices;
+    private final long sliceNanos;
+
+    /**
+     * @param windowNanos the duration of the rolling window
+     * @param sliceCount the number of slices the window is split into, more slices roll the window more smoothly
+     */
+    public RollingLatencyHistogram(long windowNanos, int sliceCount) {
+        if (windowNanos < sliceCount || sliceCount < 1) {
+            throw new IllegalArgumentException("Invalid rolling window of " + windowNanos + " ns split into " + sliceCount + " slices");
+        }
+        this.sliceNanos = windowNanos / sliceCount;
+        this.slices = new Slice[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i] = new Slice();
+        }
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param value the latency, in nanoseconds
+     * @param now the current {@link System#nanoTime()}, usually already known by the caller, which measured the latency
+     */
+    public void record(long value, long now) {
+        long period = Math.floorDiv(now, sliceNanos);
+        Slice slice = slices[(int) Math.floorMod(period, (long) slices.length)];
+        long slicePeriod = slice.period.get();
+        if (slicePeriod < period && slice.period.compareAndSet(slicePeriod, period)) {
+            // a few values concurrently recorded to the new period, while the counts are reset, may be lost
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                slice.counts.set(i, 0);
+            }
+        }
+        slice.counts.incrementAndGet(bucketIndex(Math.min(Math.max(value, 0), HIGHEST_TRACKABLE_VALUE)));
+    }
+
+    /**
+     * Retrieves the value at the specified quantile, of the values recorded in the current window.
+     *
+     * @param quantile a quantile between 0 and 1, e.g. 0.99
+     * @return the highest value of the bucket at the quantile, 0 if there are no values in the window
+     */
+    public long getValueAtQuantile(double quantile) {
+        long period = Math.floorDiv(System.nanoTime(), sliceNanos);
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (Slice slice : slices) {
+            if (slice.period.get() > period - slices.length) {
+                for (int i = 0; i < BUCKET_COUNT; i++) {
+                    long count = slice.counts.get(i);
+                    counts[i] += count;
+                    total += count;
+                }
+            }
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestValueInBucket(i);
+            }
+        }
+        return HIGHEST_TRACKABLE_VALUE;
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // keep the 7 most significant bits, the shift selects the power of two range, the remaining bits the bucket within it
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT + (int) (value >>> shift) - SUB_BUCKET_HALF_COUNT;
+    }
+
+    static long highestValueInBucket(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return (subBucket << shift) + (1L << shift) - 1;
+    }
+
+    private static final class Slice {
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+        // the period of the slice, i.e. the number of slice durations elapsed since the origin of System.nanoTime()
+        private final AtomicLong period = new AtomicLong(Long.MIN_VALUE);
+    }
+}
@@ -33,6 +33,7 @@ import org.junit.runner.RunWith;
 
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -85,7 +86,8 @@ public class MicroProfileMetricsIT {
     @Deployment
     public static JavaArchive createDeployment() {
         return ShrinkWrap.create(JavaArchive.class)
-            .addClasses(JaxRsApplication.class, PrimeNumberChecker.class)
+            .addClasses(JaxRsApplication.class, RootResource.class, PrimeNumberChecker.class, PrimeCache.class,
+                LatencyFilter.class, RollingLatencyHistogram.class)
             // enable CDI
             .addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
     }
@@ -115,6 +117,39 @@ public class MicroProfileMetricsIT {
         Assert.assertEquals(29, json.get("org.wildfly.quickstarts.microprofile.metrics.PrimeNumberChecker.highestPrimeNumberSoFar").asInt());
     }
 
+    /**
+     * Tests that /primes checks all numbers and that its metrics are correctly collected.
+     */
+    @Test
+    public void testBatchPrimeMetrics() {
+        Response batchResponse = client.target(deploymentURL.toString())
+            .path("/primes")
+            .request()
+            .post(Entity.text("350, 7, 29 4194303 1"));
+
+        Assert.assertEquals(200, batchResponse.getStatus());
+        Assert.assertEquals("350 is not prime, it is divisible by 2.\n"
+            + "7 is prime.\n"
+            + "29 is prime.\n"
+            + "4194303 is not prime, is divisible by 3.\n"
+            + "1 is not prime.", batchResponse.readEntity(String.class));
+
+        Response response = client.
+            target(managementURL.toString())
+            .path("/metrics/application")
+            .request()
+            .header("Accept", MediaType.APPLICATION_JSON)
+            .get();
+
+        Assert.assertEquals(200, response.getStatus());
+        ModelNode json = ModelNode.fromJSONString(response.readEntity(String.class));
+
+        Assert.assertEquals(1, json.get("primeBatchSize").get("count").asInt());
+        Assert.assertEquals(5, json.get("primeBatchSize").get("max").asInt());
+        Assert.assertEquals(1, json.get("batchChecksTimer").get("count").asInt());
+        Assert.assertTrue(json.get("primeCacheHits").asInt() >= 3);
+    }
+
     /**
      * Tests that /parallel metrics are correctly collected.
      */
@@ -223,6 +258,34 @@ public class MicroProfileMetricsIT {
         Assert.assertEquals(1, json.get("duplicatedCounter;type=copy").asInt());
     }
 
+    /**
+     * Tests that the latency percentiles of a resource method are correctly collected.
+     */
+    @Test
+    public void testLatencyMetrics() {
+        for (int i = 0; i < 3; i++) {
+            restAppGetInvoke(client, "/");
+        }
+
+        Response response = client.
+            target(managementURL.toString())
+            .path("/metrics/application")
+            .request()
+            .header("Accept", MediaType.APPLICATION_JSON)
+            .get();
+
+        Assert.assertEquals(200, response.getStatus());
+        ModelNode json = ModelNode.fromJSONString(response.readEntity(String.class));
+
+        int quantiles = 0;
+        for (String key : json.keys()) {
+            if (key.startsWith(LatencyFilter.METRIC_NAME) && key.contains("resource=RootResource.getRootResponse")) {
+                Assert.assertTrue("Invalid latency " + key, json.get(key).asLong() > 0);
+                quantiles++;
+            }
+        }
+        Assert.assertEquals(4, quantiles);
+    }
 
     private void restAppGetInvoke(Client client, String path) {
         Response response = client
@@ -0,0 +1,81 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.servlet.async;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.servlet.AsyncContext;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * <p>
+ * An asynchronous servlet which, unlike the {@link AsynchronousServlet}, does not use any thread while the long-running task is
+ * waiting.
+ * </p>
+ *
+ * <p>
+ * The servlet is registered and mapped to /ScheduledAsynchronousServlet using the {@link WebServlet} annotation. The
+ * {@link ManagedScheduledExecutorService} is injected as a resource.
+ * </p>
+ *
+ * <p>
+ * Instead of a thread sleeping until the long-running task is done, the completion of the response is scheduled, and the
+ * response is then written without blocking, thus the number of concurrent requests is not limited by the size of any thread
+ * pool. The request times out if not completed after {@link #TIMEOUT} milliseconds. The <code>delay</code> request parameter
+ * sets the duration of the long-running task, in milliseconds, which defaults to {@link #DEFAULT_DELAY}.
+ * </p>
+ */
+@SuppressWarnings("serial")
+@WebServlet(value = "/ScheduledAsynchronousServlet", asyncSupported = true)
+public class ScheduledAsynchronousServlet extends HttpServlet {
+
+    public static final long DEFAULT_DELAY = 5000;
+
+    public static final long TIMEOUT = 10000;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduledExecutorService;
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+        long delay = DEFAULT_DELAY;
+        String delayParam = req.getParameter("delay");
+        if (delayParam != null) {
+            try {
+                delay = Long.parseLong(delayParam);
+            } catch (NumberFormatException e) {
+                resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                return;
+            }
+        }
+
+        // Here the request is put in asynchronous mode, with a timeout
+        AsyncContext asyncContext = req.startAsync();
+        asyncContext.setTimeout(TIMEOUT);
+        ScheduledResponseWriter responseWriter = new ScheduledResponseWriter(asyncContext);
+        asyncContext.addListener(responseWriter);
+
+        // This method will return immediately when invoked,
+        // the response will be written once the delay elapses, or the request times out.
+        responseWriter.setScheduledFuture(scheduledExecutorService.schedule(responseWriter, delay, TimeUnit.MILLISECONDS));
+    }
+}
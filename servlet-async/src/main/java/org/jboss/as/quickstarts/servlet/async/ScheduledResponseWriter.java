@@ -0,0 +1,149 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.servlet.async;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * <p>
+ * Completes a suspended Servlet request, once scheduled to run, with the current time.
+ * </p>
+ *
+ * <p>
+ * No thread is used while waiting for the scheduled time, and the response is written without blocking, through a
+ * {@link WriteListener}. If the request times out before the scheduled time, the scheduled task is cancelled and the response is
+ * completed with 503 (Service Unavailable).
+ * </p>
+ */
+public class ScheduledResponseWriter implements Runnable, AsyncListener, WriteListener {
+
+    private final Logger logger = Logger.getLogger(ScheduledResponseWriter.class.getName());
+
+    private final AsyncContext asyncContext;
+
+    // guards against the scheduled task and the timeout both completing the response
+    private final AtomicBoolean responding = new AtomicBoolean();
+
+    // guards against completing the async request twice, e.g. by a write in progress when the request times out
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    private volatile ScheduledFuture<?> scheduledFuture;
+
+    private ServletOutputStream outputStream;
+
+    private byte[] data;
+
+    private boolean written;
+
+    public ScheduledResponseWriter(AsyncContext asyncContext) {
+        this.asyncContext = asyncContext;
+    }
+
+    public void setScheduledFuture(ScheduledFuture<?> scheduledFuture) {
+        this.scheduledFuture = scheduledFuture;
+    }
+
+    @Override
+    public void run() {
+        if (!responding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            data = (new SimpleDateFormat("HH:mm:ss").format(new Date()) + System.lineSeparator())
+                .getBytes(StandardCharsets.UTF_8);
+            HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+            response.setContentType("text/plain");
+            response.setContentLength(data.length);
+            outputStream = response.getOutputStream();
+            // the container invokes onWritePossible() once the data may be written without blocking
+            outputStream.setWriteListener(this);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, e.getMessage(), e);
+            complete();
+        }
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+        while (!completed.get() && outputStream.isReady()) {
+            if (written) {
+                complete();
+                return;
+            }
+            outputStream.write(data);
+            written = true;
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        logger.log(Level.SEVERE, t.getMessage(), t);
+        complete();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) throws IOException {
+        if (!responding.compareAndSet(false, true)) {
+            // the response is being written, it is completed as is, otherwise the container would dispatch an error page while
+            // the write is in progress
+            complete();
+            return;
+        }
+        ScheduledFuture<?> scheduledFuture = this.scheduledFuture;
+        if (scheduledFuture != null) {
+            scheduledFuture.cancel(false);
+        }
+        ((HttpServletResponse) event.getAsyncContext().getResponse()).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        complete();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) throws IOException {
+        ScheduledFuture<?> scheduledFuture = this.scheduledFuture;
+        if (scheduledFuture != null) {
+            scheduledFuture.cancel(false);
+        }
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) throws IOException {
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) throws IOException {
+    }
+
+    private void complete() {
+        if (completed.compareAndSet(false, true)) {
+            asyncContext.complete();
+        }
+    }
+}
@@ -16,6 +16,9 @@
  */
 package org.jboss.as.quickstarts.client;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.util.Map;
 import java.util.Hashtable;
 import java.util.logging.Level;
@@ -34,6 +37,17 @@ public class Client {
     private static final String ACCESSORIES_1 = "Wireless Ergonomic Keyboard and Mouse";
     private static final String ACCESSORIES_2 = "32 GB USB 2.0 Flash Drive";
 
+    // the number of cart reads, and of line items changed before each one, when measuring the throughput
+    private static final int THROUGHPUT_READS = 100;
+    private static final int THROUGHPUT_CHANGES_PER_READ = 10;
+
+    /**
+     * Runs the shopping cart demo. If cart sizes are specified as arguments, e.g. {@code -Dexec.args="100 1000 5000"}, the
+     * throughput of carts with each number of line items is measured afterwards.
+     *
+     * @param args
+     * @throws NamingException
+     */
     public static void main(String[] args) throws NamingException {
         // avoid INFO output for the client demo
         Logger.getLogger("org.xnio").setLevel(Level.WARNING);
@@ -107,5 +121,65 @@ public class Client {
             System.out.println("Cart was correctly removed, as expected, after Checkout and is no longer available!");
         }
         System.out.println("&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&&\n");
+
+        for (String arg : args) {
+            measureThroughput((ShoppingCart) context.lookup(lookupName), Integer.parseInt(arg));
+        }
+    }
+
+    /**
+     * Fills a new cart with the specified number of line items, and then compares reading the whole cart with reading only
+     * the changed line items, after each few updates.
+     */
+    private static void measureThroughput(ShoppingCart cart, int items) {
+        System.out.println("Measuring the throughput of a cart with " + items + " line items");
+        long start = System.nanoTime();
+        for (int i = 0; i < items; i++) {
+            cart.buy("Product " + i, 1);
+        }
+        System.out.println(String.format("buy(): %.0f calls/sec", callsPerSecond(items, start)));
+
+        long contentsBytes = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < THROUGHPUT_READS; i++) {
+            updateCart(cart, items, i);
+            contentsBytes += serializedSize(cart.getCartContents());
+        }
+        System.out.println(String.format("getCartContents(): %.0f calls/sec, %d bytes/call",
+            callsPerSecond(THROUGHPUT_READS * (THROUGHPUT_CHANGES_PER_READ + 1), start), contentsBytes / THROUGHPUT_READS));
+
+        long changesBytes = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < THROUGHPUT_READS; i++) {
+            updateCart(cart, items, i);
+            changesBytes += serializedSize(cart.getCartChanges());
+        }
+        System.out.println(String.format("getCartChanges(): %.0f calls/sec, %d bytes/call\n",
+            callsPerSecond(THROUGHPUT_READS * (THROUGHPUT_CHANGES_PER_READ + 1), start), changesBytes / THROUGHPUT_READS));
+
+        cart.checkout();
+    }
+
+    private static void updateCart(ShoppingCart cart, int items, int read) {
+        for (int i = 0; i < THROUGHPUT_CHANGES_PER_READ; i++) {
+            cart.buy("Product " + ((read * THROUGHPUT_CHANGES_PER_READ + i) % items), 1);
+        }
+    }
+
+    private static double callsPerSecond(int calls, long start) {
+        return calls * 1_000_000_000.0 / Math.max(1, System.nanoTime() - start);
+    }
+
+    /*
+     * The size of the Java serialized form of a call result, an approximation of the bytes it takes on the wire.
+     */
+    private static int serializedSize(Object object) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.size();
     }
 }
@@ -0,0 +1,111 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.sfsb;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The line items of a shopping cart, which may be safely updated by concurrent threads.
+ * <p>
+ * The store tracks which line items changed, which allows clients to retrieve only these changes, and it has a compact
+ * serialized form, with each line item written as its product name and a primitive quantity, which reduces the cost of
+ * passivation and replication of the stateful session bean that holds it.
+ */
+public class CartStore implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient ConcurrentHashMap<String, Integer> items = new ConcurrentHashMap<>();
+
+    private transient Set<String> changedProducts = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Adds the specified quantity of a product, atomically.
+     *
+     * @param product
+     * @param quantity
+     * @return the resulting quantity of the product
+     */
+    public int add(String product, int quantity) {
+        int result = items.merge(product, quantity, Integer::sum);
+        changedProducts.add(product);
+        return result;
+    }
+
+    /**
+     * Retrieves a snapshot of all line items, and clears the changes tracked.
+     *
+     * @return
+     */
+    public Map<String, Integer> getContents() {
+        changedProducts.clear();
+        return new HashMap<>(items);
+    }
+
+    /**
+     * Retrieves the line items which changed since the last call to this method or to {@link #getContents()}.
+     *
+     * @return
+     */
+    public Map<String, Integer> getChanges() {
+        Map<String, Integer> changes = new HashMap<>();
+        for (Iterator<String> it = changedProducts.iterator(); it.hasNext();) {
+            String product = it.next();
+            // remove before reading, a concurrent update is then either included or tracked for the next call
+            it.remove();
+            changes.put(product, items.get(product));
+        }
+        return changes;
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        Map<String, Integer> snapshot = new HashMap<>(items);
+        out.writeInt(snapshot.size());
+        for (Map.Entry<String, Integer> item : snapshot.entrySet()) {
+            out.writeUTF(item.getKey());
+            out.writeInt(item.getValue());
+            out.writeBoolean(changedProducts.contains(item.getKey()));
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int size = in.readInt();
+        items = new ConcurrentHashMap<>(Math.max(16, size * 4 / 3 + 1));
+        changedProducts = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < size; i++) {
+            String product = in.readUTF();
+            items.put(product, in.readInt());
+            if (in.readBoolean()) {
+                changedProducts.add(product);
+            }
+        }
+    }
+}
@@ -29,4 +29,12 @@ public interface ShoppingCart {
     void checkout();
 
     Map<String, Integer> getCartContents();
+
+    /**
+     * Retrieves the line items which quantity changed since the last call to this method or to {@link #getCartContents()},
+     * which allows clients to keep a copy of the cart without receiving all its contents on each call.
+     *
+     * @return
+     */
+    Map<String, Integer> getCartChanges();
 }
@@ -16,7 +16,6 @@
  */
 package org.jboss.as.quickstarts.sfsb;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.logging.Logger;
 import javax.ejb.Remove;
@@ -30,20 +29,18 @@ public class ShoppingCartBean implements ShoppingCart {
 
     private static final Logger LOGGER = Logger.getLogger(ShoppingCartBean.class.toString());
 
-    private Map<String, Integer> cart = new HashMap<>();
+    private final CartStore cart = new CartStore();
 
     public void buy(String product, int quantity) {
-        if (cart.containsKey(product)) {
-            int currentQuantity = cart.get(product);
-            currentQuantity += quantity;
-            cart.put(product, currentQuantity);
-        } else {
-            cart.put(product, quantity);
-        }
+        cart.add(product, quantity);
     }
 
     public Map<String, Integer> getCartContents() {
-        return cart;
+        return cart.getContents();
+    }
+
+    public Map<String, Integer> getCartChanges() {
+        return cart.getChanges();
     }
 
     @Remove
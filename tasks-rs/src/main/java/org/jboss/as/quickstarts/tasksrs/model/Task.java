@@ -23,11 +23,14 @@ import static javax.persistence.GenerationType.IDENTITY;
 
 import java.io.Serializable;
 import java.io.StringReader;
+import java.util.Locale;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 import javax.xml.bind.JAXB;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
@@ -42,6 +45,8 @@ import javax.xml.bind.annotation.XmlTransient;
  */
 @SuppressWarnings("serial")
 @Entity
+// tasks are always queried by owner, the lower case title is indexed along with the owner to support the title prefix search
+@Table(indexes = @Index(name = "task_owner_title_idx", columnList = "owner_id, lowerCaseTitle"))
 @XmlRootElement(name = "task")
 public class Task implements Serializable {
 
@@ -54,12 +59,16 @@ public class Task implements Serializable {
 
     private String title;
 
+    // the title in lower case, maintained by setTitle(), which is not exposed as XML and allows case insensitive searches
+    // to use an index, see TaskDao#getForTitlePrefix(User, String)
+    private String lowerCaseTitle;
+
     public Task() {
     }
 
     public Task(String title) {
         super();
-        this.title = title;
+        setTitle(title);
     }
 
     @XmlAttribute
@@ -94,6 +103,7 @@ public class Task implements Serializable {
 
     public void setTitle(String title) {
         this.title = title;
+        this.lowerCaseTitle = title == null ? null : title.toLowerCase(Locale.ROOT);
     }
 
     @Override
@@ -33,9 +33,15 @@ public interface TaskDao {
 
     List<Task> getAll(User user);
 
+    Task getForId(User user, Long id);
+
     List<Task> getRange(User user, int offset, int count);
 
+    List<Task> getRangeAfter(User user, Long afterId, int count);
+
     List<Task> getForTitle(User user, String title);
 
+    List<Task> getForTitlePrefix(User user, String titlePrefix);
+
     void deleteTask(Task task);
 }
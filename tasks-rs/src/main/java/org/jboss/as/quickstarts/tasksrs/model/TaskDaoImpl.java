@@ -17,6 +17,7 @@
 package org.jboss.as.quickstarts.tasksrs.model;
 
 import java.util.List;
+import java.util.Locale;
 
 import javax.ejb.Stateful;
 import javax.inject.Inject;
@@ -52,6 +53,18 @@ public class TaskDaoImpl implements TaskDao {
         return query.getResultList();
     }
 
+    @Override
+    public Task getForId(User user, Long id) {
+        // the primary key is used to find the task, the owner restriction ensures users may access only their own tasks
+        List<Task> result = em.createQuery("SELECT t FROM Task t WHERE t.id = ?1 AND t.owner = ?2", Task.class)
+            .setParameter(1, id).setParameter(2, user).getResultList();
+
+        if (result.isEmpty()) {
+            return null;
+        }
+        return result.get(0);
+    }
+
     @Override
     public List<Task> getRange(User user, int offset, int count) {
         TypedQuery<Task> query = querySelectAllTasksFromUser(user);
@@ -60,6 +73,15 @@ public class TaskDaoImpl implements TaskDao {
         return query.getResultList();
     }
 
+    @Override
+    public List<Task> getRangeAfter(User user, Long afterId, int count) {
+        // keyset paging, unlike getRange() the database does not need to read and skip all the previous tasks
+        TypedQuery<Task> query = afterId == null ? querySelectAllTasksFromUser(user)
+            : em.createQuery("SELECT t FROM Task t WHERE t.owner = ?1 AND t.id > ?2 ORDER BY t.id", Task.class)
+                .setParameter(1, user).setParameter(2, afterId);
+        return query.setMaxResults(count).getResultList();
+    }
+
     @Override
     public List<Task> getForTitle(User user, String title) {
         String lowerCaseTitle = "%" + title.toLowerCase() + "%";
@@ -67,6 +89,17 @@ public class TaskDaoImpl implements TaskDao {
             .setParameter(1, user).setParameter(2, lowerCaseTitle).getResultList();
     }
 
+    @Override
+    public List<Task> getForTitlePrefix(User user, String titlePrefix) {
+        // unlike getForTitle(), the pattern has no leading wildcard and matches the indexed lower case title column
+        String lowerCaseTitlePrefix = titlePrefix.toLowerCase(Locale.ROOT).replace("!", "!!").replace("%", "!%")
+            .replace("_", "!_") + "%";
+        return em
+            .createQuery("SELECT t FROM Task t WHERE t.owner = ?1 AND t.lowerCaseTitle LIKE ?2 ESCAPE '!' ORDER BY t.id",
+                Task.class)
+            .setParameter(1, user).setParameter(2, lowerCaseTitlePrefix).getResultList();
+    }
+
     @Override
     public void deleteTask(Task task) {
         if (!em.contains(task)) {
@@ -76,6 +109,6 @@ public class TaskDaoImpl implements TaskDao {
     }
 
     private TypedQuery<Task> querySelectAllTasksFromUser(User user) {
-        return em.createQuery("SELECT t FROM Task t WHERE t.owner = ?1", Task.class).setParameter(1, user);
+        return em.createQuery("SELECT t FROM Task t WHERE t.owner = ?1 ORDER BY t.id", Task.class).setParameter(1, user);
     }
 }
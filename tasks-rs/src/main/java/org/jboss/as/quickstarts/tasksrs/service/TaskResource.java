@@ -28,6 +28,7 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Response;
@@ -45,6 +46,10 @@ import org.jboss.as.quickstarts.tasksrs.model.UserDao;
  */
 @Path("/")
 public class TaskResource {
+
+    // the maximum number of tasks returned by the paged listings
+    private static final int MAX_COUNT = 100;
+
     @Inject
     private UserDao userDao;
 
@@ -107,8 +112,47 @@ public class TaskResource {
         return getTasks(getUser(context));
     }
 
+    @GET
+    @Path("tasks/prefix/{prefix}")
+    // JSON: include "application/json" in the @Produces annotation to include json support
+    // @Produces({ "application/xml", "application/json" })
+    @Produces({ "application/xml" })
+    public List<Task> getTasksByTitlePrefix(@Context SecurityContext context, @PathParam("prefix") String prefix) {
+        return taskDao.getForTitlePrefix(getUser(context), prefix);
+    }
+
+    @GET
+    @Path("tasks/range")
+    // JSON: include "application/json" in the @Produces annotation to include json support
+    // @Produces({ "application/xml", "application/json" })
+    @Produces({ "application/xml" })
+    public List<Task> getTasksRange(@Context SecurityContext context, @QueryParam("offset") @DefaultValue("0") int offset,
+        @QueryParam("count") @DefaultValue("20") int count) {
+        if (offset < 0) {
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        }
+        return taskDao.getRange(getUser(context), offset, getCount(count));
+    }
+
+    @GET
+    @Path("tasks/after/{id}")
+    // JSON: include "application/json" in the @Produces annotation to include json support
+    // @Produces({ "application/xml", "application/json" })
+    @Produces({ "application/xml" })
+    public List<Task> getTasksAfter(@Context SecurityContext context, @PathParam("id") Long id,
+        @QueryParam("count") @DefaultValue("20") int count) {
+        return taskDao.getRangeAfter(getUser(context), id, getCount(count));
+    }
+
     // Utility Methods
 
+    private int getCount(int count) {
+        if (count < 1) {
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        }
+        return Math.min(count, MAX_COUNT);
+    }
+
     private List<Task> getTasks(User user, String title) {
         return taskDao.getForTitle(user, title);
     }
@@ -118,11 +162,12 @@ public class TaskResource {
     }
 
     private Task getTask(User user, Long id) {
-        for (Task task : taskDao.getAll(user))
-            if (task.getId().equals(id))
-                return task;
+        Task task = taskDao.getForId(user, id);
+
+        if (task == null)
+            throw new WebApplicationException(Response.Status.NOT_FOUND);
 
-        throw new WebApplicationException(Response.Status.NOT_FOUND);
+        return task;
     }
 
     private User getUser(SecurityContext context) {
@@ -17,6 +17,7 @@
 package org.jboss.as.quickstarts.tasksrs;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.FileNotFoundException;
@@ -136,4 +137,61 @@ public class TaskDaoIT {
         // then
         assertEquals(1, taskDao.getAll(detachedUser).size());
     }
+
+    @Test
+    @InSequence(6)
+    public void task_should_be_found_by_id_only_for_its_owner() {
+        // given
+        User otherUser = new User("emuster");
+        otherUser.setId(2L);
+
+        // when
+        Task task = taskDao.getForId(detachedUser, 2L);
+
+        // then
+        assertTrue(task.getTitle().contains("second"));
+        assertNull(taskDao.getForId(detachedUser, 1L));
+        assertNull(taskDao.getForId(otherUser, 2L));
+    }
+
+    @Test
+    @InSequence(7)
+    public void tasks_should_be_paged_after_the_last_task_id() {
+        // given
+        User user = new User("Paged user");
+        em.persist(user);
+        for (int i = 0; i < 250; i++) {
+            taskDao.createTask(user, new Task("Paged task " + i));
+        }
+
+        // when
+        int tasks = 0;
+        Long lastId = null;
+        List<Task> page;
+        while (!(page = taskDao.getRangeAfter(user, lastId, 100)).isEmpty()) {
+            for (Task task : page) {
+                assertTrue(lastId == null || task.getId() > lastId);
+                lastId = task.getId();
+                tasks++;
+            }
+        }
+
+        // then
+        assertEquals(250, tasks);
+        assertEquals(taskDao.getRange(user, 200, 100), taskDao.getRangeAfter(user, taskDao.getRange(user, 199, 1).get(0)
+            .getId(), 100));
+    }
+
+    @Test
+    @InSequence(8)
+    public void taskDao_should_provide_case_insensitive_title_prefix_search() {
+        // when
+        List<Task> titledTasks = taskDao.getForTitlePrefix(detachedUser, "JOHNS SEC");
+
+        // then
+        assertEquals(1, titledTasks.size());
+        assertTrue(titledTasks.get(0).getTitle().contains("second"));
+        assertTrue(taskDao.getForTitlePrefix(detachedUser, "second").isEmpty());
+        assertTrue(taskDao.getForTitlePrefix(detachedUser, "johns%").isEmpty());
+    }
 }
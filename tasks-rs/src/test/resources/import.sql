@@ -21,6 +21,6 @@ INSERT INTO User (ID, USERNAME) VALUES (2, 'emuster');
 COMMIT
 
 BEGIN
-INSERT INTO Task (ID, OWNER_ID, TITLE) VALUES (1, 1, 'johns first task');
-INSERT INTO Task (ID, OWNER_ID, TITLE) VALUES (2, 1, 'johns second task');
+INSERT INTO Task (ID, OWNER_ID, TITLE, LOWERCASETITLE) VALUES (1, 1, 'johns first task', 'johns first task');
+INSERT INTO Task (ID, OWNER_ID, TITLE, LOWERCASETITLE) VALUES (2, 1, 'johns second task', 'johns second task');
 COMMIT
\ No newline at end of file
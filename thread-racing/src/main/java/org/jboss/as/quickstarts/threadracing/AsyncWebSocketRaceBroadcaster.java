@@ -0,0 +1,288 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing;
+
+import javax.websocket.CloseReason;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link WebSocketRaceBroadcaster} which never blocks the race, nor the racers.
+ *
+ * Messages and pauses are added to a bounded send queue, which is drained by tasks run on a {@link java.util.concurrent.ScheduledExecutorService}, one frame at a time, through the session's {@link javax.websocket.RemoteEndpoint.Async}. Consecutive race progress messages are batched in a single frame, and pauses are implemented by scheduling the next drain, thus no thread is held.
+ *
+ * If the client consumes messages too slowly, and the send queue gets full, new messages are dropped or the session is disconnected, depending on the {@link SlowConsumerPolicy}.
+ */
+public class AsyncWebSocketRaceBroadcaster extends WebSocketRaceBroadcaster {
+
+    /**
+     * What to do when a session's send queue is full.
+     */
+    public enum SlowConsumerPolicy {
+        /**
+         * the new message is dropped
+         */
+        DROP,
+        /**
+         * the session is closed
+         */
+        DISCONNECT
+    }
+
+    /**
+     * the default max number of messages in the send queue
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * the max number of race progress messages batched in a single frame
+     */
+    private static final int MAX_BATCH_MESSAGES = 64;
+
+    private final Session session;
+    private final RemoteEndpoint.Async remote;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final BroadcastMetrics metrics;
+    private final SlowConsumerPolicy slowConsumerPolicy;
+
+    /**
+     * the session's send queue
+     */
+    private final BlockingQueue<Message> queue;
+
+    /**
+     * indicates if there is a drain in progress, which ensures a single frame is sent at a time, and in order
+     */
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /**
+     * the task which sends the next frame
+     */
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    private volatile boolean closeRequested;
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a new async web socket broadcaster, with the default queue capacity, which drops messages for slow consumers.
+     * @param session the session where race progress messages will be sent.
+     * @param scheduledExecutorService the executor where the send queue is drained
+     * @param metrics the broadcast metrics
+     */
+    public AsyncWebSocketRaceBroadcaster(Session session, ScheduledExecutorService scheduledExecutorService, BroadcastMetrics metrics) {
+        this(session, scheduledExecutorService, metrics, DEFAULT_QUEUE_CAPACITY, SlowConsumerPolicy.DROP);
+    }
+
+    /**
+     * Creates a new async web socket broadcaster.
+     * @param session the session where race progress messages will be sent.
+     * @param scheduledExecutorService the executor where the send queue is drained
+     * @param metrics the broadcast metrics
+     * @param queueCapacity the max number of messages in the send queue
+     * @param slowConsumerPolicy what to do when the send queue is full
+     */
+    public AsyncWebSocketRaceBroadcaster(Session session, ScheduledExecutorService scheduledExecutorService, BroadcastMetrics metrics, int queueCapacity, SlowConsumerPolicy slowConsumerPolicy) {
+        super(session);
+        this.session = session;
+        this.remote = session.getAsyncRemote();
+        this.scheduledExecutorService = scheduledExecutorService;
+        this.metrics = metrics;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.slowConsumerPolicy = slowConsumerPolicy;
+    }
+
+    @Override
+    protected void sendToClient(String message) {
+        enqueue(new Message(message, 0L, false));
+    }
+
+    @Override
+    protected void pause(long millis) {
+        enqueue(new Message(null, millis, false));
+    }
+
+    @Override
+    public void raceProgress(String msg) {
+        enqueue(new Message(msg + "<br/>", 0L, true));
+    }
+
+    /**
+     * Closes the session, once all queued messages are sent.
+     */
+    public void close() {
+        closeRequested = true;
+        startDrain();
+    }
+
+    /**
+     * Adds a message to the send queue.
+     * @param message
+     */
+    private void enqueue(Message message) {
+        if (closed) {
+            return;
+        }
+        if (queue.offer(message)) {
+            metrics.messageQueued(queue.size());
+            startDrain();
+        } else if (slowConsumerPolicy == SlowConsumerPolicy.DROP) {
+            metrics.messageDropped();
+        } else {
+            metrics.sessionDisconnected();
+            closeSession(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "slow consumer"));
+        }
+    }
+
+    /**
+     * Starts draining the send queue, if not draining already.
+     */
+    private void startDrain() {
+        if (draining.compareAndSet(false, true)) {
+            scheduledExecutorService.execute(drainTask);
+        }
+    }
+
+    /**
+     * Sends the next frame, or schedules the next drain if the queue's head is a pause.
+     */
+    private void drain() {
+        if (closed) {
+            return;
+        }
+        final Message head = queue.poll();
+        if (head == null) {
+            if (closeRequested) {
+                closeSession(null);
+                return;
+            }
+            draining.set(false);
+            // a message, or the close request, may have arrived after the poll, but before the drain flag reset
+            if ((!queue.isEmpty() || closeRequested) && draining.compareAndSet(false, true)) {
+                scheduledExecutorService.execute(drainTask);
+            }
+            return;
+        }
+        if (head.pauseMillis > 0) {
+            metrics.messagesDequeued(1);
+            scheduledExecutorService.schedule(drainTask, head.pauseMillis, TimeUnit.MILLISECONDS);
+            return;
+        }
+        int messages = 1;
+        String text = head.text;
+        if (head.progress) {
+            // batch consecutive progress messages, there is a single drain at a time thus the peeked message is the one polled
+            StringBuilder sb = null;
+            Message next;
+            while (messages < MAX_BATCH_MESSAGES && (next = queue.peek()) != null && next.progress) {
+                queue.poll();
+                if (sb == null) {
+                    sb = new StringBuilder(text);
+                }
+                sb.append(next.text);
+                messages++;
+            }
+            if (sb != null) {
+                text = sb.toString();
+            }
+        }
+        metrics.messagesDequeued(messages);
+        send(text, messages);
+    }
+
+    /**
+     * Sends a frame, and drains the queue again once the send completes.
+     * @param text
+     * @param messages the number of messages batched in the frame
+     */
+    private void send(String text, final int messages) {
+        final long startTime = System.nanoTime();
+        try {
+            remote.sendText(text, new SendHandler() {
+                @Override
+                public void onResult(SendResult result) {
+                    metrics.frameSent(messages, System.nanoTime() - startTime);
+                    if (result.isOK()) {
+                        // the handler may run on a web socket I/O thread, which should not be used to send the next frame
+                        scheduledExecutorService.execute(drainTask);
+                    } else {
+                        result.getException().printStackTrace();
+                        closeSession(null);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            closeSession(null);
+        }
+    }
+
+    /**
+     * Closes the session, discarding queued messages.
+     * @param closeReason the close reason, null if normal closure
+     */
+    private void closeSession(CloseReason closeReason) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        int discarded = 0;
+        while (queue.poll() != null) {
+            discarded++;
+        }
+        metrics.messagesDequeued(discarded);
+        try {
+            if (closeReason != null) {
+                session.close(closeReason);
+            } else {
+                session.close();
+            }
+        } catch (IOException ignore) {
+        }
+    }
+
+    /**
+     * An entry of the send queue, either a text message or a pause.
+     */
+    private static class Message {
+
+        private final String text;
+        private final long pauseMillis;
+        private final boolean progress;
+
+        private Message(String text, long pauseMillis, boolean progress) {
+            this.text = text;
+            this.pauseMillis = pauseMillis;
+            this.progress = progress;
+        }
+    }
+}
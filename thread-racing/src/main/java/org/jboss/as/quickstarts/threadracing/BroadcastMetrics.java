@@ -0,0 +1,145 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An application scoped CDI bean with the metrics of all {@link AsyncWebSocketRaceBroadcaster}s, such as the depth of the send queues, and the latency of the sends. Metrics are updated concurrently, thus lock free adders are used.
+ */
+@ApplicationScoped
+public class BroadcastMetrics {
+
+    private final LongAdder queuedMessages = new LongAdder();
+    private final LongAccumulator maxQueueDepth = new LongAccumulator(Math::max, 0L);
+    private final LongAdder sentFrames = new LongAdder();
+    private final LongAdder sentMessages = new LongAdder();
+    private final LongAdder sendNanosTotal = new LongAdder();
+    private final LongAccumulator maxSendNanos = new LongAccumulator(Math::max, 0L);
+    private final LongAdder droppedMessages = new LongAdder();
+    private final LongAdder disconnectedSessions = new LongAdder();
+
+    /**
+     * A message was added to a session's send queue.
+     * @param queueDepth the session's queue depth, after adding the message
+     */
+    void messageQueued(int queueDepth) {
+        queuedMessages.increment();
+        maxQueueDepth.accumulate(queueDepth);
+    }
+
+    /**
+     * Messages were removed from a session's send queue.
+     * @param messages
+     */
+    void messagesDequeued(int messages) {
+        queuedMessages.add(-messages);
+    }
+
+    /**
+     * A frame was sent.
+     * @param messages the number of messages batched in the frame
+     * @param sendNanos the time it took to send the frame, in nanoseconds
+     */
+    void frameSent(int messages, long sendNanos) {
+        sentFrames.increment();
+        sentMessages.add(messages);
+        sendNanosTotal.add(sendNanos);
+        maxSendNanos.accumulate(sendNanos);
+    }
+
+    /**
+     * A message was dropped, since the session's send queue was full.
+     */
+    void messageDropped() {
+        droppedMessages.increment();
+    }
+
+    /**
+     * A session was disconnected, since it was consuming messages too slowly.
+     */
+    void sessionDisconnected() {
+        disconnectedSessions.increment();
+    }
+
+    /**
+     * Retrieves the number of messages currently queued, in all sessions.
+     * @return
+     */
+    public long getQueuedMessages() {
+        return queuedMessages.sum();
+    }
+
+    /**
+     * Retrieves the max depth reached by a session's send queue.
+     * @return
+     */
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * Retrieves the number of frames sent.
+     * @return
+     */
+    public long getSentFrames() {
+        return sentFrames.sum();
+    }
+
+    /**
+     * Retrieves the number of messages sent, which may be greater than the number of frames, since progress messages are batched.
+     * @return
+     */
+    public long getSentMessages() {
+        return sentMessages.sum();
+    }
+
+    /**
+     * Retrieves the average frame send latency, in nanoseconds.
+     * @return
+     */
+    public long getAverageSendNanos() {
+        final long frames = getSentFrames();
+        return frames == 0 ? 0 : sendNanosTotal.sum() / frames;
+    }
+
+    /**
+     * Retrieves the max frame send latency, in nanoseconds.
+     * @return
+     */
+    public long getMaxSendNanos() {
+        return maxSendNanos.get();
+    }
+
+    /**
+     * Retrieves the number of messages dropped.
+     * @return
+     */
+    public long getDroppedMessages() {
+        return droppedMessages.sum();
+    }
+
+    /**
+     * Retrieves the number of sessions disconnected.
+     * @return
+     */
+    public long getDisconnectedSessions() {
+        return disconnectedSessions.sum();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing;
+
+import javax.inject.Inject;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * A REST service which provides the race broadcasts metrics, as JSON, e.g. at http://localhost:8080/thread-racing/box/broadcastMetrics
+ */
+@Path("/broadcastMetrics")
+public class BroadcastMetricsService {
+
+    @Inject
+    private BroadcastMetrics metrics;
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public JsonObject getMetrics() {
+        return Json.createObjectBuilder()
+                .add("queuedMessages", metrics.getQueuedMessages())
+                .add("maxQueueDepth", metrics.getMaxQueueDepth())
+                .add("sentFrames", metrics.getSentFrames())
+                .add("sentMessages", metrics.getSentMessages())
+                .add("averageSendNanos", metrics.getAverageSendNanos())
+                .add("maxSendNanos", metrics.getMaxSendNanos())
+                .add("droppedMessages", metrics.getDroppedMessages())
+                .add("disconnectedSessions", metrics.getDisconnectedSessions())
+                .build();
+    }
+}
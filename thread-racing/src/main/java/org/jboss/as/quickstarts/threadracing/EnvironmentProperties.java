@@ -37,4 +37,14 @@ public interface EnvironmentProperties {
      * the app's root path, e.g. /thread-racing
      */
     String ROOT_PATH = "ROOT_PATH";
+
+    /**
+     * the executor used to run the racers, e.g. platform or virtual, see {@link org.jboss.as.quickstarts.threadracing.executor.RacerExecutors}
+     */
+    String RACER_EXECUTOR = "RACER_EXECUTOR";
+
+    /**
+     * the JSON stage mode, either tree (default), which uses the object model API, or streaming, which uses the streaming API
+     */
+    String JSON_STAGE_MODE = "JSON_STAGE_MODE";
 }
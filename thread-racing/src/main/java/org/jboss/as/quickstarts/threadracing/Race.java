@@ -20,6 +20,9 @@ import org.jboss.as.quickstarts.threadracing.results.ChampionshipStandings;
 import org.jboss.as.quickstarts.threadracing.results.RaceResult;
 import org.jboss.as.quickstarts.threadracing.results.RaceResults;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
@@ -69,29 +72,19 @@ public class Race {
     private final RaceBroadcaster broadcaster;
 
     /**
-     * the past race results
+     * the past race results, null if the race's result should not be stored
      */
     private final RaceResults results;
 
     /**
-     * the racer #1
+     * the statistics of the stages completed by the racers, in all runs of the race
      */
-    private final Racer racer1;
+    private final RaceStatistics statistics = new RaceStatistics();
 
     /**
-     * the racer #2
+     * the race's grid, i.e. the racers, ordered by registration number
      */
-    private final Racer racer2;
-
-    /**
-     * the racer #3
-     */
-    private final Racer racer3;
-
-    /**
-     * the racer #4
-     */
-    private final Racer racer4;
+    private final List<Racer> racers;
 
     /**
      * Creates a new race with the specified racers and environment.
@@ -104,15 +97,42 @@ public class Race {
      * @param results the race results
      */
     public Race(Racer racer1, Racer racer2, Racer racer3, Racer racer4, Map<String, String> environment, RaceBroadcaster broadcaster, RaceResults results) {
-        this.racer1 = racer1;
-        this.racer2 = racer2;
-        this.racer3 = racer3;
-        this.racer4 = racer4;
+        this(Arrays.asList(racer1, racer2, racer3, racer4), environment, broadcaster, results);
+    }
+
+    /**
+     * Creates a new race with the specified grid of racers and environment.
+     * @param racers the race's grid, which may have any number of racers
+     * @param environment
+     * @param broadcaster the broadcaster that will be used to update fans about the race progress.
+     * @param results the race results, or null if the race's result should neither be stored nor scored in the championship, e.g. for load races
+     */
+    public Race(List<Racer> racers, Map<String, String> environment, RaceBroadcaster broadcaster, RaceResults results) {
+        if (racers.isEmpty()) {
+            throw new IllegalArgumentException("a race requires at least one racer");
+        }
+        this.racers = new ArrayList<>(racers);
         this.environment = environment;
         this.broadcaster = broadcaster;
         this.results = results;
     }
 
+    /**
+     * Retrieves the race's grid size.
+     * @return
+     */
+    public int getGridSize() {
+        return racers.size();
+    }
+
+    /**
+     * Retrieves the statistics of the stages completed by the racers.
+     * @return
+     */
+    public RaceStatistics getStatistics() {
+        return statistics;
+    }
+
     /**
      * Starts the race.
      * @throws Exception if there is an unexpected issue with the race, such as racers taking too long being ready to start, or not finishing the race in time.
@@ -131,21 +151,23 @@ public class Race {
      * Resets the race state.
      */
     private void reset() {
-        startBarrier = new CyclicBarrier(5);
-        endCountDownLatch = new CountDownLatch(4);
+        final int gridSize = racers.size();
+        // all racers plus the race itself await on the start barrier
+        startBarrier = new CyclicBarrier(gridSize + 1);
+        endCountDownLatch = new CountDownLatch(gridSize);
         donePosition = new AtomicInteger(1);
-        abortedPosition = new AtomicInteger(4);
-        result = new RaceResult();
+        abortedPosition = new AtomicInteger(gridSize);
+        result = new RaceResult(gridSize);
     }
 
     /**
      * Registers all racers.
      */
     private void registerRacers() {
-        racer1.setRegistration(new Registration(racer1, 1));
-        racer2.setRegistration(new Registration(racer2, 2));
-        racer3.setRegistration(new Registration(racer3, 3));
-        racer4.setRegistration(new Registration(racer4, 4));
+        int number = 1;
+        for (Racer racer : racers) {
+            racer.setRegistration(new Registration(racer, number++));
+        }
     }
 
     /**
@@ -153,10 +175,9 @@ public class Race {
      */
     private void startEngines() {
         broadcaster.startYourEngines();
-        racer1.startEngine();
-        racer2.startEngine();
-        racer3.startEngine();
-        racer4.startEngine();
+        for (Racer racer : racers) {
+            racer.startEngine();
+        }
     }
 
     /**
@@ -181,9 +202,13 @@ public class Race {
      * Process the race result.
      */
     private void processResult() {
-        results.add(result);
+        if (results != null) {
+            results.add(result);
+        }
         broadcaster.raceResult(result);
-        broadcaster.championshipStandings(new ChampionshipStandings().addAll(results).getEntryList());
+        if (results != null) {
+            broadcaster.championshipStandings(new ChampionshipStandings().addAll(results).getEntryList());
+        }
     }
 
     /**
@@ -237,6 +262,16 @@ public class Race {
             endCountDownLatch.countDown();
         }
 
+        /**
+         * The racer has completed a race stage.
+         * @param stageName
+         * @param elapsedNanos the time the racer took to complete the stage, in nanoseconds
+         */
+        public void stageCompleted(String stageName, long elapsedNanos) {
+            statistics.stageCompleted(stageName, elapsedNanos);
+            broadcast("completed the " + stageName + " stage.");
+        }
+
         /**
          * Retrieves the race's environment.
          * @return
@@ -0,0 +1,143 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The statistics of the race stages completed by racers. Racers complete stages concurrently, thus updates use lock free adders.
+ */
+public class RaceStatistics {
+
+    /**
+     * the mapping stage name --> stage statistics, in the order stages were first completed
+     */
+    private final Map<String, StageStatistics> stages = Collections.synchronizedMap(new LinkedHashMap<String, StageStatistics>());
+
+    /**
+     * Records the completion of a stage by a racer.
+     * @param stageName
+     * @param elapsedNanos
+     */
+    public void stageCompleted(String stageName, long elapsedNanos) {
+        getStageStatistics(stageName).add(1, elapsedNanos, elapsedNanos);
+    }
+
+    /**
+     * Adds all statistics of another race.
+     * @param other
+     * @return
+     */
+    public RaceStatistics addAll(RaceStatistics other) {
+        for (StageStatistics otherStage : other.getStageStatisticsList()) {
+            getStageStatistics(otherStage.getName()).add(otherStage.getCount(), otherStage.getTotalNanos(), otherStage.getMaxNanos());
+        }
+        return this;
+    }
+
+    private StageStatistics getStageStatistics(String stageName) {
+        StageStatistics stageStatistics = stages.get(stageName);
+        if (stageStatistics == null) {
+            synchronized (stages) {
+                stageStatistics = stages.get(stageName);
+                if (stageStatistics == null) {
+                    stageStatistics = new StageStatistics(stageName);
+                    stages.put(stageName, stageStatistics);
+                }
+            }
+        }
+        return stageStatistics;
+    }
+
+    /**
+     * Retrieves the statistics of each stage.
+     * @return
+     */
+    public List<StageStatistics> getStageStatisticsList() {
+        synchronized (stages) {
+            return new ArrayList<>(stages.values());
+        }
+    }
+
+    /**
+     * The statistics of a single race stage.
+     */
+    public static class StageStatistics {
+
+        private final String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+        private StageStatistics(String name) {
+            this.name = name;
+        }
+
+        private void add(long count, long totalNanos, long maxNanos) {
+            this.count.add(count);
+            this.totalNanos.add(totalNanos);
+            this.maxNanos.accumulate(maxNanos);
+        }
+
+        /**
+         *
+         * @return
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Retrieves the number of stage completions.
+         * @return
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * Retrieves the sum of all stage completion times, in nanoseconds.
+         * @return
+         */
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        /**
+         * Retrieves the max stage completion time, in nanoseconds.
+         * @return
+         */
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        /**
+         * Retrieves the average stage completion time, in nanoseconds.
+         * @return
+         */
+        public long getAverageNanos() {
+            final long count = getCount();
+            return count == 0 ? 0 : getTotalNanos() / count;
+        }
+    }
+}
@@ -16,21 +16,24 @@
  */
 package org.jboss.as.quickstarts.threadracing;
 
+import org.jboss.as.quickstarts.threadracing.executor.RacerExecutor;
+import org.jboss.as.quickstarts.threadracing.executor.RacerExecutors;
+import org.jboss.as.quickstarts.threadracing.stage.RaceStage;
 import org.jboss.as.quickstarts.threadracing.stage.concurrency.EEConcurrencyRaceStage;
 import org.jboss.as.quickstarts.threadracing.stage.batch.BatchRaceStage;
 import org.jboss.as.quickstarts.threadracing.stage.jaxrs.JAXRSRaceStage;
 import org.jboss.as.quickstarts.threadracing.stage.jms.JMSRaceStage;
 import org.jboss.as.quickstarts.threadracing.stage.json.JSONRaceStage;
+import org.jboss.as.quickstarts.threadracing.stage.json.StreamingJSONRaceStage;
 
-import javax.annotation.Resource;
-import javax.enterprise.concurrent.ManagedThreadFactory;
 import javax.inject.Inject;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
 
 /**
  * A racer, a CDI bean injected with an instance of each race stage, which are also CDI beans.
  *
- * The race stages are run sequentially in a managed thread, provided by the container's EE Concurrency 1.0 {@link javax.enterprise.concurrent.ManagedThreadFactory} default instance, also injected, but through @Resource.
+ * The race stages are run sequentially in threads provided by the {@link org.jboss.as.quickstarts.threadracing.executor.RacerExecutor} selected by the race's environment, by default a managed thread, provided by the container's EE Concurrency 1.0 {@link javax.enterprise.concurrent.ManagedThreadFactory} default instance.
  *
  * The race's {@link org.jboss.as.quickstarts.threadracing.Race.Registration} is used to control the racer's start and finish/abort.
  *
@@ -39,11 +42,10 @@ import java.util.UUID;
 public class Racer {
 
     /**
-     * JNDI injection of the default managed thread factory instance, introduced by EE Concurrency 1.0 (JSR 236),
-     * which apps may use to create threads running tasks with the invocation context present on the thread creation.
+     * cdi injection of the racer executors, which provide the racer's thread
      */
-    @Resource
-    private ManagedThreadFactory managedThreadFactory;
+    @Inject
+    private RacerExecutors racerExecutors;
 
     /**
      * cdi injection of the Batch 1.0 race stage
@@ -75,6 +77,12 @@ public class Racer {
     @Inject
     private JSONRaceStage jsonRaceStageRen;
 
+    /**
+     * cdi injection of the JSON 1.0 race stage streaming variant
+     */
+    @Inject
+    private StreamingJSONRaceStage streamingJsonRaceStage;
+
     /**
      * the racer's registration , which the racer uses to "interact" with a race
      */
@@ -117,9 +125,12 @@ public class Racer {
     }
 
     /**
-     * Starts the racer's engine a.k.a. as thread. The default {@link javax.enterprise.concurrent.ManagedThreadFactory} instance, provided by EE Concurrency 1.0, is used to create the racer's thread.
+     * Starts the racer's engine a.k.a. as thread. The thread is provided by the {@link org.jboss.as.quickstarts.threadracing.executor.RacerExecutor} selected by the race's environment.
+     *
+     * The racer does not hold on to its thread during the pit stop, the JAX-RS stage is run asynchronously, and once done the remaining stages are run by a new task of the racer executor.
      */
     public void startEngine() {
+        final RacerExecutor racerExecutor = racerExecutors.getRacerExecutor(registration.getEnvironment());
         final Runnable raceTask = new Runnable() {
             @Override
             public void run() {
@@ -127,31 +138,76 @@ public class Racer {
                     // the racer is ready
                     registration.ready();
                     // race on, run baby run
-                    runRaceStages();
-                    // game over
-                    registration.done();
+                    runRaceStagesBeforePitStop();
+                    pitStop(racerExecutor);
                 } catch (Throwable t) {
                     registration.aborted(t);
                 }
             }
         };
-        managedThreadFactory.newThread(raceTask).start();
+        racerExecutor.execute(raceTask);
+    }
+
+    /**
+     * Execution of the race stages/tasks before the pit stop.
+     * @throws Exception
+     */
+    private void runRaceStagesBeforePitStop() throws Exception {
+        runRaceStage("Batch 1.0", batchRaceStage);
+        runRaceStage("EE Concurrency 1.0", eeConcurrencyRaceStage);
+    }
+
+    /**
+     * Does the pit stop, i.e. runs the JAX-RS stage without blocking the racer's thread, and resumes the race once done.
+     * @param racerExecutor the executor which runs the remaining stages
+     */
+    private void pitStop(final RacerExecutor racerExecutor) {
+        final long startTime = System.nanoTime();
+        jaxrsRaceStageRen.runAsync(registration).whenComplete((result, failure) -> {
+            if (failure != null) {
+                registration.aborted(failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+                return;
+            }
+            registration.stageCompleted("JAX-RS 2.0", System.nanoTime() - startTime);
+            final Runnable raceTask = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        runRaceStagesAfterPitStop();
+                        // game over
+                        registration.done();
+                    } catch (Throwable t) {
+                        registration.aborted(t);
+                    }
+                }
+            };
+            try {
+                racerExecutor.execute(raceTask);
+            } catch (Throwable t) {
+                registration.aborted(t);
+            }
+        });
+    }
+
+    /**
+     * Execution of the race stages/tasks after the pit stop.
+     * @throws Exception
+     */
+    private void runRaceStagesAfterPitStop() throws Exception {
+        runRaceStage("JMS 2.0", jmsRaceStage);
+        final boolean streamingJson = "streaming".equals(registration.getEnvironment().get(EnvironmentProperties.JSON_STAGE_MODE));
+        runRaceStage("JSON 1.0", streamingJson ? streamingJsonRaceStage : jsonRaceStageRen);
     }
 
     /**
-     * Execution of the race stages/tasks.
+     * Runs a race stage, and reports its completion, and the time it took, to the race.
+     * @param stageName
+     * @param raceStage
      * @throws Exception
      */
-    private void runRaceStages() throws Exception {
-        batchRaceStage.run(registration);
-        registration.broadcast("completed the Batch 1.0 stage.");
-        eeConcurrencyRaceStage.run(registration);
-        registration.broadcast("completed the EE Concurrency 1.0 stage.");
-        jaxrsRaceStageRen.run(registration);
-        registration.broadcast("completed the JAX-RS 2.0 stage.");
-        jmsRaceStage.run(registration);
-        registration.broadcast("completed the JMS 2.0 stage.");
-        jsonRaceStageRen.run(registration);
-        registration.broadcast("completed the JSON 1.0 stage.");
+    private void runRaceStage(String stageName, RaceStage raceStage) throws Exception {
+        final long startTime = System.nanoTime();
+        raceStage.run(registration);
+        registration.stageCompleted(stageName, System.nanoTime() - startTime);
     }
 }
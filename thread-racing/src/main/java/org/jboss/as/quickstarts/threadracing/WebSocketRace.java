@@ -22,14 +22,16 @@ import org.jboss.as.quickstarts.threadracing.legends.SebastienThroeb;
 import org.jboss.as.quickstarts.threadracing.legends.ValentinoThrossi;
 import org.jboss.as.quickstarts.threadracing.results.RaceResults;
 
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.inject.Inject;
 import javax.websocket.HandshakeResponse;
 import javax.websocket.OnOpen;
 import javax.websocket.Session;
 import javax.websocket.server.HandshakeRequest;
 import javax.websocket.server.ServerEndpointConfig;
-import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -44,6 +46,16 @@ public class WebSocketRace {
 
     public static final String PATH = "/race";
 
+    /**
+     * the optional request parameter which selects the racer executor, e.g. ws://localhost:8080/thread-racing/race?racerExecutor=virtual
+     */
+    public static final String RACER_EXECUTOR_PARAM = "racerExecutor";
+
+    /**
+     * the optional request parameter which selects the JSON stage mode, e.g. ws://localhost:8080/thread-racing/race?jsonStageMode=streaming
+     */
+    public static final String JSON_STAGE_MODE_PARAM = "jsonStageMode";
+
     /**
      * CDI injection of racer #1
      */
@@ -74,30 +86,42 @@ public class WebSocketRace {
     @Inject
     private RaceResults raceResults;
 
+    /**
+     * JNDI injection of the default managed scheduled executor service instance, where the race broadcasts are sent
+     */
+    @Resource
+    private ManagedScheduledExecutorService managedScheduledExecutorService;
+
+    /**
+     * CDI injection of the race broadcasts metrics
+     */
+    @Inject
+    private BroadcastMetrics broadcastMetrics;
+
     /**
      * Session opened handler, creates and starts a race.
      * @param session
      */
     @OnOpen
     public void onOpen(Session session) {
+        final AsyncWebSocketRaceBroadcaster broadcaster = new AsyncWebSocketRaceBroadcaster(session, managedScheduledExecutorService, broadcastMetrics);
         try {
-            new Race(racer1, racer2, racer3, racer4, buildRaceEnvironment(session), new WebSocketRaceBroadcaster(session), raceResults).run();
+            new Race(racer1, racer2, racer3, racer4, buildRaceEnvironment(session, PATH), broadcaster, raceResults).run();
         } catch (Exception e) {
             e.printStackTrace();
         } finally {
-            try {
-                session.close();
-            } catch (IOException ignore) {
-            }
+            // the session is closed once all race messages are sent
+            broadcaster.close();
         }
     }
 
     /**
      * Builds the race's environment, from the specified session.
      * @param session
+     * @param path the path of the server endpoint which accepted the session
      * @return
      */
-    private Map<String, String> buildRaceEnvironment(Session session) {
+    static Map<String, String> buildRaceEnvironment(Session session, String path) {
         final Map<String, String> environment = new HashMap<>();
         final String host = (String) session.getUserProperties().get(ServerEndpointConfigurator.HOST_USER_PROP);
         if (host != null) {
@@ -105,12 +129,28 @@ public class WebSocketRace {
             environment.put(EnvironmentProperties.SERVER_NAME, hostSplit[0]);
             environment.put(EnvironmentProperties.SERVER_PORT, (hostSplit.length > 1 ? hostSplit[1] : "80"));
         }
-        final String requestURI = session.getRequestURI().toString();
-        final String rootPath = requestURI.equals(PATH) ? "" : requestURI.substring(0, (requestURI.length() - PATH.length()));
+        final String requestURI = session.getRequestURI().getPath();
+        final String rootPath = requestURI.equals(path) ? "" : requestURI.substring(0, (requestURI.length() - path.length()));
         environment.put(EnvironmentProperties.ROOT_PATH, rootPath);
+        putRequestParameter(session, RACER_EXECUTOR_PARAM, EnvironmentProperties.RACER_EXECUTOR, environment);
+        putRequestParameter(session, JSON_STAGE_MODE_PARAM, EnvironmentProperties.JSON_STAGE_MODE, environment);
         return environment;
     }
 
+    /**
+     * Puts the value of a session's request parameter, if present, in the race's environment.
+     * @param session
+     * @param parameterName
+     * @param environmentProperty
+     * @param environment
+     */
+    private static void putRequestParameter(Session session, String parameterName, String environmentProperty, Map<String, String> environment) {
+        final List<String> values = session.getRequestParameterMap().get(parameterName);
+        if (values != null && !values.isEmpty()) {
+            environment.put(environmentProperty, values.get(0));
+        }
+    }
+
     /**
      * This configurator will capture the environment properties, when handshaking a client.
      */
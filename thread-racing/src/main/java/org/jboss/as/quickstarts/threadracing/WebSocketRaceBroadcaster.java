@@ -26,6 +26,8 @@ import java.util.List;
 /**
  * A {@link org.jboss.as.quickstarts.threadracing.RaceBroadcaster} that sends html/text messages through a Web Socket {@link javax.websocket.Session}.
  *
+ * Messages are sent synchronously, and pauses block the calling thread, see {@link AsyncWebSocketRaceBroadcaster} for a broadcaster that never blocks the race.
+ *
  * @author Eduardo Martins
  */
 public class WebSocketRaceBroadcaster implements RaceBroadcaster {
@@ -47,7 +49,7 @@ public class WebSocketRaceBroadcaster implements RaceBroadcaster {
      * Sends a message to the web socket client.
      * @param message
      */
-    private void sendToClient(String message) {
+    protected void sendToClient(String message) {
         try {
             session.getBasicRemote().sendText(message);
         } catch (IOException e) {
@@ -59,7 +61,7 @@ public class WebSocketRaceBroadcaster implements RaceBroadcaster {
      * Pauses the broadcast for the specified amount of milliseconds.
      * @param millis
      */
-    private void pause(long millis) {
+    protected void pause(long millis) {
         try {
             Thread.sleep(millis);
         } catch (InterruptedException e) {
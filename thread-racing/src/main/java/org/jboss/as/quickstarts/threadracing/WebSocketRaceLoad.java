@@ -0,0 +1,191 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing;
+
+import org.jboss.as.quickstarts.threadracing.executor.RacerExecutors;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.websocket.OnOpen;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * A Web Socket {@link javax.websocket.server.ServerEndpoint} which, for each client connection established, runs many races concurrently, and reports the throughput achieved in races/sec.
+ *
+ * The number of concurrent races and the grid size of each race may be specified through the request parameters {@link #RACES_PARAM} and {@link #GRID_SIZE_PARAM}, e.g. ws://localhost:8080/thread-racing/race-load?races=10&amp;gridSize=200
+ *
+ * The racer executor may be selected through the request parameter {@link WebSocketRace#RACER_EXECUTOR_PARAM}, which also accepts a comma separated list, e.g. racerExecutor=platform,virtual, in such case the load is run once per executor, and the reports shown side by side.
+ *
+ * Races are run without broadcast pauses, through a {@link SilentRaceBroadcaster}, on the container's default {@link javax.enterprise.concurrent.ManagedExecutorService}, thus all load goes to the container's concurrency stack. The results of these races are neither stored nor scored, thus the championship standings shown to {@link WebSocketRace} clients are not affected.
+ */
+@javax.websocket.server.ServerEndpoint(value = WebSocketRaceLoad.PATH, configurator = WebSocketRace.ServerEndpointConfigurator.class)
+public class WebSocketRaceLoad {
+
+    public static final String PATH = "/race-load";
+
+    /**
+     * the request parameter with the number of concurrent races
+     */
+    public static final String RACES_PARAM = "races";
+
+    /**
+     * the request parameter with the number of racers in each race
+     */
+    public static final String GRID_SIZE_PARAM = "gridSize";
+
+    private static final int DEFAULT_RACES = 10;
+
+    private static final int DEFAULT_GRID_SIZE = 100;
+
+    /**
+     * JNDI injection of the default managed executor service instance, used to run the races
+     */
+    @Resource
+    private ManagedExecutorService managedExecutorService;
+
+    /**
+     * CDI provider of racers, each race gets new instances. The legends are restricted to their own bean types, thus Racer resolves only to the Racer bean, with random names
+     */
+    @Inject
+    private Instance<Racer> racerInstance;
+
+    /**
+     * Session opened handler, runs the races and reports the throughput.
+     * @param session
+     */
+    @OnOpen
+    public void onOpen(Session session) {
+        try {
+            final int races = getIntParameter(session, RACES_PARAM, DEFAULT_RACES);
+            final int gridSize = getIntParameter(session, GRID_SIZE_PARAM, DEFAULT_GRID_SIZE);
+            final Map<String, String> environment = WebSocketRace.buildRaceEnvironment(session, PATH);
+            // run the load once for each racer executor requested, for a side by side comparison
+            final String racerExecutors = environment.get(EnvironmentProperties.RACER_EXECUTOR);
+            for (String racerExecutor : (racerExecutors != null ? racerExecutors : RacerExecutors.PLATFORM).split(",")) {
+                environment.put(EnvironmentProperties.RACER_EXECUTOR, racerExecutor.trim());
+                session.getBasicRemote().sendText(runLoad(races, gridSize, environment));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            try {
+                session.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    /**
+     * Runs the specified number of races concurrently.
+     * @param races
+     * @param gridSize
+     * @param environment
+     * @return a html report with the races throughput, the peak number of live platform threads, and the latency of each race stage
+     * @throws InterruptedException
+     */
+    private String runLoad(int races, int gridSize, Map<String, String> environment) throws InterruptedException {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        threadMXBean.resetPeakThreadCount();
+        final long startTime = System.nanoTime();
+        final List<Race> raceList = new ArrayList<>(races);
+        final List<Future<Void>> futures = new ArrayList<>(races);
+        for (int i = 0; i < races; i++) {
+            final List<Racer> racers = new ArrayList<>(gridSize);
+            for (int j = 0; j < gridSize; j++) {
+                racers.add(racerInstance.get());
+            }
+            final Race race = new Race(racers, environment, SilentRaceBroadcaster.INSTANCE, null);
+            raceList.add(race);
+            futures.add(managedExecutorService.submit(newRaceTask(race, racers)));
+        }
+        int failedRaces = 0;
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                e.getCause().printStackTrace();
+                failedRaces++;
+            }
+        }
+        final double elapsedSeconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        final RaceStatistics statistics = new RaceStatistics();
+        for (Race race : raceList) {
+            statistics.addAll(race.getStatistics());
+        }
+        final StringBuilder sb = new StringBuilder();
+        sb.append("<h2>").append(environment.get(EnvironmentProperties.RACER_EXECUTOR)).append(" racer executor</h2>");
+        sb.append(String.format("%d races (%d failed) with %d racers each, completed in %.3f seconds, throughput %.2f races/sec, peak platform threads %d", races, failedRaces, gridSize, elapsedSeconds, races / elapsedSeconds, threadMXBean.getPeakThreadCount()));
+        sb.append("<ul>");
+        for (RaceStatistics.StageStatistics stage : statistics.getStageStatisticsList()) {
+            sb.append(String.format("<li>%s stage: %d completions, avg %.3f ms, max %.3f ms</li>", stage.getName(), stage.getCount(), stage.getAverageNanos() / 1_000_000.0, stage.getMaxNanos() / 1_000_000.0));
+        }
+        sb.append("</ul>");
+        return sb.toString();
+    }
+
+    /**
+     * Creates a task which runs a race, and destroys its racers once the race ends.
+     * @param race
+     * @param racers
+     * @return
+     */
+    private Callable<Void> newRaceTask(final Race race, final List<Racer> racers) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                try {
+                    race.run();
+                } finally {
+                    for (Racer racer : racers) {
+                        racerInstance.destroy(racer);
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Retrieves a positive int request parameter.
+     * @param session
+     * @param name
+     * @param defaultValue the value returned if the parameter is not present
+     * @return
+     */
+    private static int getIntParameter(Session session, String name, int defaultValue) {
+        final List<String> values = session.getRequestParameterMap().get(name);
+        if (values == null || values.isEmpty()) {
+            return defaultValue;
+        }
+        final int value = Integer.parseInt(values.get(0));
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " must be a positive number");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing.executor;
+
+import javax.enterprise.concurrent.ManagedThreadFactory;
+
+/**
+ * A {@link RacerExecutor} which runs each racer in a new platform thread, created by an EE Concurrency 1.0 {@link javax.enterprise.concurrent.ManagedThreadFactory}.
+ */
+public class ManagedThreadRacerExecutor implements RacerExecutor {
+
+    private final ManagedThreadFactory managedThreadFactory;
+
+    /**
+     *
+     * @param managedThreadFactory the factory used to create racer's threads
+     */
+    public ManagedThreadRacerExecutor(ManagedThreadFactory managedThreadFactory) {
+        this.managedThreadFactory = managedThreadFactory;
+    }
+
+    @Override
+    public void execute(Runnable raceTask) {
+        managedThreadFactory.newThread(raceTask).start();
+    }
+}
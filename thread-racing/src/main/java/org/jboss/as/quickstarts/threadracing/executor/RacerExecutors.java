@@ -0,0 +1,87 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing.executor;
+
+import org.jboss.as.quickstarts.threadracing.EnvironmentProperties;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ContextService;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.Map;
+
+/**
+ * An application scoped CDI bean which provides the {@link RacerExecutor} selected by a race's environment, through the {@link org.jboss.as.quickstarts.threadracing.EnvironmentProperties#RACER_EXECUTOR} property.
+ */
+@ApplicationScoped
+public class RacerExecutors {
+
+    /**
+     * the racer executor which uses platform threads, the default
+     */
+    public static final String PLATFORM = "platform";
+
+    /**
+     * the racer executor which uses virtual threads
+     */
+    public static final String VIRTUAL = "virtual";
+
+    /**
+     * JNDI injection of the default managed thread factory instance
+     */
+    @Resource
+    private ManagedThreadFactory managedThreadFactory;
+
+    /**
+     * JNDI injection of the default context service instance
+     */
+    @Resource
+    private ContextService contextService;
+
+    private RacerExecutor platformRacerExecutor;
+
+    private RacerExecutor virtualRacerExecutor;
+
+    @PostConstruct
+    void init() {
+        platformRacerExecutor = new ManagedThreadRacerExecutor(managedThreadFactory);
+        if (VirtualThreadRacerExecutor.isSupported()) {
+            virtualRacerExecutor = new VirtualThreadRacerExecutor(contextService);
+        }
+    }
+
+    /**
+     * Retrieves the racer executor selected by the specified race environment.
+     * @param environment
+     * @return
+     * @throws IllegalArgumentException if the selected racer executor is unknown or not supported
+     */
+    public RacerExecutor getRacerExecutor(Map<String, String> environment) {
+        final String name = environment.get(EnvironmentProperties.RACER_EXECUTOR);
+        if (name == null || PLATFORM.equals(name)) {
+            return platformRacerExecutor;
+        }
+        if (VIRTUAL.equals(name)) {
+            if (virtualRacerExecutor == null) {
+                throw new IllegalArgumentException("racer executor " + name + " requires Java 21 or later");
+            }
+            return virtualRacerExecutor;
+        }
+        throw new IllegalArgumentException("unknown racer executor " + name);
+    }
+}
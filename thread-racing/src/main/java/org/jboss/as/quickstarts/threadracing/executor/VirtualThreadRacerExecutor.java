@@ -0,0 +1,85 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing.executor;
+
+import javax.enterprise.concurrent.ContextService;
+import java.lang.reflect.Method;
+
+/**
+ * A {@link RacerExecutor} which runs each racer in a new virtual thread.
+ *
+ * Virtual threads are not created by the container, thus the racer's task is wrapped in a contextual proxy, provided by the EE Concurrency 1.0 {@link javax.enterprise.concurrent.ContextService}, to run with the app's invocation context.
+ *
+ * The app is compiled for Java 8, thus the virtual thread API, available since Java 21, is accessed through reflection, and this executor is only available if the server runs on Java 21 or later.
+ */
+public class VirtualThreadRacerExecutor implements RacerExecutor {
+
+    /**
+     * the Thread.ofVirtual() method, null if the JVM does not support virtual threads
+     */
+    private static final Method OF_VIRTUAL_METHOD;
+
+    /**
+     * the Thread.Builder.start(Runnable) method, null if the JVM does not support virtual threads
+     */
+    private static final Method START_METHOD;
+
+    static {
+        Method ofVirtualMethod = null;
+        Method startMethod = null;
+        try {
+            ofVirtualMethod = Thread.class.getMethod("ofVirtual");
+            startMethod = Class.forName("java.lang.Thread$Builder").getMethod("start", Runnable.class);
+        } catch (ReflectiveOperationException e) {
+            // virtual threads not supported
+        }
+        OF_VIRTUAL_METHOD = ofVirtualMethod;
+        START_METHOD = startMethod;
+    }
+
+    private final ContextService contextService;
+
+    /**
+     *
+     * @param contextService the context service used to propagate the app's invocation context to the racer's virtual thread
+     * @throws IllegalStateException if the JVM does not support virtual threads
+     */
+    public VirtualThreadRacerExecutor(ContextService contextService) {
+        if (!isSupported()) {
+            throw new IllegalStateException("virtual threads require Java 21 or later");
+        }
+        this.contextService = contextService;
+    }
+
+    /**
+     * Indicates if the JVM supports virtual threads.
+     * @return
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL_METHOD != null && START_METHOD != null;
+    }
+
+    @Override
+    public void execute(Runnable raceTask) {
+        final Runnable contextualRaceTask = contextService.createContextualProxy(raceTask, Runnable.class);
+        try {
+            START_METHOD.invoke(OF_VIRTUAL_METHOD.invoke(null), contextualRaceTask);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("failed to start virtual thread", e);
+        }
+    }
+}
@@ -16,6 +16,8 @@
  */
 package org.jboss.as.quickstarts.threadracing.legends;
 
+import javax.enterprise.inject.Typed;
+
 import org.jboss.as.quickstarts.threadracing.Racer;
 
 /**
@@ -23,6 +25,7 @@ import org.jboss.as.quickstarts.threadracing.Racer;
  *
  * @author Eduardo Martins
  */
+@Typed(SebastienThroeb.class)
 public class SebastienThroeb extends Racer {
 
     public SebastienThroeb() {
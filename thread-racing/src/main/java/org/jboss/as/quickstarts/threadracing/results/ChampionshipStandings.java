@@ -31,39 +31,63 @@ import java.util.Map;
  * 1st place    -> 4 points
  * 2nd place    -> 3 points
  * 3rd place    -> 2 points
- * 4th place    -> 1 points
+ * 4th place and below -> 1 points
  *
  * @author Eduardo Martins
  */
 public class ChampionshipStandings {
 
+    /**
+     * the default max number of entries retrieved from the race results
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 10;
+
     /**
      * the mapping racer's name --> racer's sum of points obtained in all added race results.
      */
     private final Map<String, Integer> racerPointsTotals = new HashMap<>();
 
     /**
-     * Adds all race results.
+     * Adds the top {@link #DEFAULT_MAX_ENTRIES} racers of the championship.
      * @param raceResults
      * @return
      */
     public ChampionshipStandings addAll(RaceResults raceResults) {
-        for (RaceResult raceResult : raceResults.findAll()) {
-            add(raceResult);
+        return addAll(raceResults, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Adds the top racers of the championship. The racers points are read from the aggregate maintained by the race results, thus there is no need to process all race results.
+     * @param raceResults
+     * @param maxEntries
+     * @return
+     */
+    public ChampionshipStandings addAll(RaceResults raceResults, int maxEntries) {
+        for (RacerPoints racerPoints : raceResults.findTopRacerPoints(maxEntries)) {
+            add(racerPoints);
         }
         return this;
     }
 
+    /**
+     * Adds a racer's championship points.
+     * @param racerPoints
+     * @return
+     */
+    public ChampionshipStandings add(RacerPoints racerPoints) {
+        addRacerPoints(racerPoints.getName(), racerPoints.getPoints(), racerPointsTotals);
+        return this;
+    }
+
     /**
      * Adds a race result.
      * @param raceResult
      * @return
      */
     public ChampionshipStandings add(RaceResult raceResult) {
-        processRacerResult(raceResult.getRacer1Name(), raceResult.getRacer1Position(), racerPointsTotals);
-        processRacerResult(raceResult.getRacer2Name(), raceResult.getRacer2Position(), racerPointsTotals);
-        processRacerResult(raceResult.getRacer3Name(), raceResult.getRacer3Position(), racerPointsTotals);
-        processRacerResult(raceResult.getRacer4Name(), raceResult.getRacer4Position(), racerPointsTotals);
+        for (Map.Entry<Integer, String> position : raceResult.getPositions().entrySet()) {
+            processRacerResult(position.getValue(), position.getKey(), racerPointsTotals);
+        }
         return this;
     }
 
@@ -74,16 +98,33 @@ public class ChampionshipStandings {
      * @param racerPointsTotals
      */
     private void processRacerResult(String racerName, int racerPosition, Map<String, Integer> racerPointsTotals) {
-        final int racerPoints;
+        addRacerPoints(racerName, getPoints(racerPosition), racerPointsTotals);
+    }
+
+    /**
+     * Retrieves the championship points for a race's position.
+     * @param racerPosition
+     * @return
+     */
+    public static int getPoints(int racerPosition) {
         if (racerPosition == 1) {
-            racerPoints = 4;
+            return 4;
         } else if (racerPosition == 2) {
-            racerPoints = 3;
+            return 3;
         } else if (racerPosition == 3) {
-            racerPoints = 2;
+            return 2;
         } else {
-            racerPoints = 1;
+            return 1;
         }
+    }
+
+    /**
+     * Adds points to the racer's totals.
+     * @param racerName
+     * @param racerPoints
+     * @param racerPointsTotals
+     */
+    private void addRacerPoints(String racerName, int racerPoints, Map<String, Integer> racerPointsTotals) {
         final Integer racerPointsTotal = racerPointsTotals.get(racerName);
         if (racerPointsTotal == null) {
             racerPointsTotals.put(racerName, racerPoints);
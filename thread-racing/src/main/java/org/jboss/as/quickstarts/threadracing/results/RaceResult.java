@@ -18,12 +18,20 @@ package org.jboss.as.quickstarts.threadracing.results;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import javax.persistence.CollectionTable;
 import javax.persistence.Column;
+import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.MapKeyColumn;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.Table;
@@ -51,29 +59,34 @@ public class RaceResult implements Serializable {
     @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private int id;
 
+    /**
+     * the number of racers in the race's grid
+     */
     @Column
-    private String racer1Name;
-
-    @Column
-    private int racer1Position;
-
-    @Column
-    private String racer2Name;
-
-    @Column
-    private int racer2Position;
-
-    @Column
-    private String racer3Name;
+    private int gridSize;
 
-    @Column
-    private int racer3Position;
+    /**
+     * the mapping race position --> racer's name, stored as rows of a collection table, thus independent of the grid size
+     */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "THREAD_RACE_RESULT_POSITIONS", joinColumns = @JoinColumn(name = "RESULT_ID"))
+    @MapKeyColumn(name = "POSITION")
+    @Column(name = "RACER_NAME")
+    private Map<Integer, String> positions = new HashMap<>();
 
-    @Column
-    private String racer4Name;
+    /**
+     * JPA's mandatory no args constructor.
+     */
+    public RaceResult() {
+    }
 
-    @Column
-    private int racer4Position;
+    /**
+     * Creates a race result for a grid with the specified number of racers.
+     * @param gridSize
+     */
+    public RaceResult(int gridSize) {
+        this.gridSize = gridSize;
+    }
 
     public int getId() {
         return id;
@@ -83,97 +96,34 @@ public class RaceResult implements Serializable {
         this.id = id;
     }
 
-    public String getRacer1Name() {
-        return racer1Name;
-    }
-
-    public void setRacer1Name(String racer1Name) {
-        this.racer1Name = racer1Name;
-    }
-
-    public int getRacer1Position() {
-        return racer1Position;
-    }
-
-    public void setRacer1Position(int racer1Position) {
-        this.racer1Position = racer1Position;
+    public int getGridSize() {
+        return gridSize;
     }
 
-    public String getRacer2Name() {
-        return racer2Name;
+    public void setGridSize(int gridSize) {
+        this.gridSize = gridSize;
     }
 
-    public void setRacer2Name(String racer2Name) {
-        this.racer2Name = racer2Name;
-    }
-
-    public int getRacer2Position() {
-        return racer2Position;
-    }
-
-    public void setRacer2Position(int racer2Position) {
-        this.racer2Position = racer2Position;
-    }
-
-    public String getRacer3Name() {
-        return racer3Name;
-    }
-
-    public void setRacer3Name(String racer3Name) {
-        this.racer3Name = racer3Name;
-    }
-
-    public int getRacer3Position() {
-        return racer3Position;
-    }
-
-    public void setRacer3Position(int racer3Position) {
-        this.racer3Position = racer3Position;
-    }
-
-    public String getRacer4Name() {
-        return racer4Name;
-    }
-
-    public void setRacer4Name(String racer4Name) {
-        this.racer4Name = racer4Name;
-    }
-
-    public int getRacer4Position() {
-        return racer4Position;
-    }
-
-    public void setRacer4Position(int racer4Position) {
-        this.racer4Position = racer4Position;
+    /**
+     * Retrieves the mapping race position --> racer's name.
+     *
+     * @return
+     */
+    public synchronized Map<Integer, String> getPositions() {
+        return Collections.unmodifiableMap(new HashMap<>(positions));
     }
 
     /**
-     * Sets the result for the provided registration.
+     * Sets the result for the provided registration. Racers finish concurrently, thus the update is synchronized.
      *
      * @param registration
      * @param position
      */
-    public void setPosition(Race.Registration registration, int position) {
-        switch (registration.getNumber()) {
-            case 1:
-                setRacer1Name(registration.getRacer().getName());
-                setRacer1Position(position);
-                break;
-            case 2:
-                setRacer2Name(registration.getRacer().getName());
-                setRacer2Position(position);
-                break;
-            case 3:
-                setRacer3Name(registration.getRacer().getName());
-                setRacer3Position(position);
-                break;
-            case 4:
-                setRacer4Name(registration.getRacer().getName());
-                setRacer4Position(position);
-                break;
-            default:
-                throw new IllegalStateException("registration number must be 1-4");
+    public synchronized void setPosition(Race.Registration registration, int position) {
+        if (position < 1 || position > gridSize) {
+            throw new IllegalStateException("position must be 1-" + gridSize);
         }
+        positions.put(position, registration.getRacer().getName());
     }
 
     /**
@@ -181,12 +131,11 @@ public class RaceResult implements Serializable {
      *
      * @return
      */
-    public List<String> getSortedRacers() {
-        List<String> result = new ArrayList<>();
-        result.add(getRacerWithPosition(1));
-        result.add(getRacerWithPosition(2));
-        result.add(getRacerWithPosition(3));
-        result.add(getRacerWithPosition(4));
+    public synchronized List<String> getSortedRacers() {
+        List<String> result = new ArrayList<>(gridSize);
+        for (int i = 1; i <= gridSize; i++) {
+            result.add(positions.get(i));
+        }
         return result;
     }
 
@@ -196,17 +145,7 @@ public class RaceResult implements Serializable {
      * @param i
      * @return
      */
-    public String getRacerWithPosition(int i) {
-        if (racer1Position == i) {
-            return racer1Name;
-        } else if (racer2Position == i) {
-            return racer2Name;
-        } else if (racer3Position == i) {
-            return racer3Name;
-        } else if (racer4Position == i) {
-            return racer4Name;
-        } else {
-            return null;
-        }
+    public synchronized String getRacerWithPosition(int i) {
+        return positions.get(i);
     }
 }
@@ -16,10 +16,15 @@
  */
 package org.jboss.as.quickstarts.threadracing.results;
 
+import javax.ejb.EJB;
+import javax.ejb.EJBException;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 /**
  * A stateless EJB used to manage the storage of race results, through JPA.
@@ -36,12 +41,56 @@ public class RaceResults {
     @PersistenceContext
     private EntityManager em;
 
+    @EJB
+    private RacerPointsCreator racerPointsCreator;
+
     /**
-     * Adds a race result.
+     * Adds a race result, and updates the racers championship points within the same transaction.
      * @param e
      */
     public void add(RaceResult e) {
         em.persist(e);
+        // update the racers' rows ordered by name, concurrent races with common racers then lock the rows in the same order, which avoids deadlocks
+        final SortedMap<String, Integer> positionsByRacerName = new TreeMap<>();
+        for (Map.Entry<Integer, String> position : e.getPositions().entrySet()) {
+            positionsByRacerName.put(position.getValue(), position.getKey());
+        }
+        for (Map.Entry<String, Integer> position : positionsByRacerName.entrySet()) {
+            addPoints(position.getKey(), position.getValue());
+        }
+    }
+
+    /**
+     * Adds the points of a race position to the racer's championship points.
+     * @param racerName
+     * @param racerPosition
+     */
+    private void addPoints(String racerName, int racerPosition) {
+        final int points = ChampionshipStandings.getPoints(racerPosition);
+        if (incrementPoints(racerName, points) == 0) {
+            // first race of the racer, create its row in a separate transaction, a concurrent race may have created it meanwhile, and then the failed creation is ignored, without rolling back this race result
+            try {
+                racerPointsCreator.create(racerName);
+            } catch (EJBException e) {
+                // already created by a concurrent race
+            }
+            if (incrementPoints(racerName, points) == 0) {
+                throw new IllegalStateException("Championship points of racer " + racerName + " not found");
+            }
+        }
+    }
+
+    /**
+     * Increments the racer's championship points, atomically in the database, which avoids lost updates from concurrent races.
+     * @param racerName
+     * @param points
+     * @return the number of rows updated, 0 if the racer has no championship points yet
+     */
+    private int incrementPoints(String racerName, int points) {
+        return em.createNamedQuery("RacerPoints.addPoints")
+                .setParameter("name", racerName)
+                .setParameter("points", points)
+                .executeUpdate();
     }
 
     /**
@@ -51,4 +100,15 @@ public class RaceResults {
     public List<RaceResult> findAll() {
         return em.createNamedQuery("RaceResult.findAll", RaceResult.class).getResultList();
     }
+
+    /**
+     * Finds the racers with more championship points, ordered by points and then by name.
+     * @param maxResults the max number of racers to retrieve
+     * @return
+     */
+    public List<RacerPoints> findTopRacerPoints(int maxResults) {
+        return em.createNamedQuery("RacerPoints.findAllOrderedByPoints", RacerPoints.class)
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
 }
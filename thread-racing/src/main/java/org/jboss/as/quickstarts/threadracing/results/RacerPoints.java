@@ -0,0 +1,75 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing.results;
+
+import java.io.Serializable;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+/**
+ * The championship points a racer has accumulated, a JPA entity.
+ *
+ * This is an aggregate of all race results, kept up to date by {@link RaceResults#add(RaceResult)} in the same transaction that stores each race result, thus the championship standings may be retrieved without replaying every race result.
+ */
+@Entity
+@Table(name = "THREAD_RACE_RACER_POINTS")
+@NamedQueries({
+        @NamedQuery(name = "RacerPoints.findAllOrderedByPoints", query = "SELECT e FROM RacerPoints e ORDER BY e.points DESC, e.name ASC"),
+        @NamedQuery(name = "RacerPoints.addPoints", query = "UPDATE RacerPoints e SET e.points = e.points + :points WHERE e.name = :name")
+})
+public class RacerPoints implements Serializable {
+
+    /**
+     *
+     */
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column
+    private String name;
+
+    @Column
+    private int points;
+
+    public RacerPoints() {
+    }
+
+    public RacerPoints(String name, int points) {
+        this.name = name;
+        this.points = points;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public void setPoints(int points) {
+        this.points = points;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing.results;
+
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * A stateless EJB used to create the championship points of racers without points yet.
+ *
+ * Each row is created in its own transaction, thus a concurrent race creating the same row only fails the creation, and not the transaction storing its race result.
+ */
+@Stateless
+public class RacerPointsCreator {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * Creates the racer's championship points, with zero points.
+     * @param racerName
+     * @throws javax.ejb.EJBException if the racer's points already exist, e.g. concurrently created by another race
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void create(String racerName) {
+        em.persist(new RacerPoints(racerName, 0));
+        em.flush();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing.stage.jaxrs;
+
+import org.jboss.as.quickstarts.threadracing.EnvironmentProperties;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Response;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An application scoped CDI bean with the JAX-RS 2.1 client used by all racers to do pit stops.
+ *
+ * JAX-RS clients are heavy objects, which manage the underlying connections, and are thread safe, thus a single client, with a pool of keep-alive connections, is shared by all racers, instead of creating (and leaking) a new client on each pit stop.
+ */
+@ApplicationScoped
+public class BoxClient {
+
+    /**
+     * the max number of pooled connections
+     */
+    private static final int CONNECTION_POOL_SIZE = 200;
+
+    /**
+     * JNDI injection of the default managed executor service instance, which runs the async invocations of the client
+     */
+    @Resource
+    private ManagedExecutorService managedExecutorService;
+
+    private Client client;
+
+    /**
+     * the pit stop web targets, by URI, web targets are immutable, thus may be reused
+     */
+    private final ConcurrentMap<String, WebTarget> pitStopTargets = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        final ClientBuilder clientBuilder = ClientBuilder.newBuilder()
+                .executorService(managedExecutorService)
+                .connectTimeout(5, TimeUnit.SECONDS)
+                .readTimeout(30, TimeUnit.SECONDS);
+        if (clientBuilder instanceof ResteasyClientBuilder) {
+            // the connection pool is not configurable through the standard API
+            ((ResteasyClientBuilder) clientBuilder)
+                    .connectionPoolSize(CONNECTION_POOL_SIZE)
+                    .maxPooledPerRoute(CONNECTION_POOL_SIZE)
+                    .connectionTTL(60, TimeUnit.SECONDS);
+        }
+        client = clientBuilder.build();
+    }
+
+    @PreDestroy
+    void close() {
+        client.close();
+    }
+
+    /**
+     * Does a pit stop, blocking the calling thread until the box service responds.
+     * @param racerName
+     * @param environment the race's environment, which provides the box service location
+     * @return the response status
+     */
+    public int pitStop(String racerName, Map<String, String> environment) {
+        final Response response = pitStopRequest(racerName, environment).get();
+        try {
+            return response.getStatus();
+        } finally {
+            // releases the connection back to the pool
+            response.close();
+        }
+    }
+
+    /**
+     * Does a pit stop, without blocking the calling thread, through the JAX-RS 2.1 reactive client API.
+     * @param racerName
+     * @param environment the race's environment, which provides the box service location
+     * @return a completion stage with the response status
+     */
+    public CompletionStage<Integer> pitStopAsync(String racerName, Map<String, String> environment) {
+        return pitStopRequest(racerName, environment).rx().get().thenApply(response -> {
+            try {
+                return response.getStatus();
+            } finally {
+                response.close();
+            }
+        });
+    }
+
+    /**
+     * Builds a pit stop request.
+     * @param racerName
+     * @param environment
+     * @return
+     */
+    private Invocation.Builder pitStopRequest(String racerName, Map<String, String> environment) {
+        return getPitStopTarget(environment).path("{racer}").resolveTemplate("racer", racerName).request();
+    }
+
+    /**
+     * Retrieves the pit stop web target, built from race's environment.
+     * @param environment
+     * @return
+     */
+    private WebTarget getPitStopTarget(Map<String, String> environment) {
+        final String pitStopURI = new StringBuilder("http://")
+                .append(environment.get(EnvironmentProperties.SERVER_NAME))
+                .append(':')
+                .append(environment.get(EnvironmentProperties.SERVER_PORT))
+                .append(environment.get(EnvironmentProperties.ROOT_PATH))
+                .append('/')
+                .append(BoxApplication.PATH)
+                .append("/pitStop")
+                .toString();
+        WebTarget target = pitStopTargets.get(pitStopURI);
+        if (target == null) {
+            final WebTarget newTarget = client.target(pitStopURI);
+            target = pitStopTargets.putIfAbsent(pitStopURI, newTarget);
+            if (target == null) {
+                target = newTarget;
+            }
+        }
+        return target;
+    }
+}
@@ -16,48 +16,53 @@
  */
 package org.jboss.as.quickstarts.threadracing.stage.jaxrs;
 
-import org.jboss.as.quickstarts.threadracing.EnvironmentProperties;
 import org.jboss.as.quickstarts.threadracing.Race;
 import org.jboss.as.quickstarts.threadracing.stage.RaceStage;
 
-import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
-import javax.ws.rs.client.WebTarget;
-import javax.ws.rs.core.Response;
-import java.util.Map;
+import javax.inject.Inject;
+import java.util.concurrent.CompletionStage;
 
 /**
  * The JAX-RS 2.0 race stage implements the race's boxes, which a racer uses to do a pit stop.
  *
+ * The pit stop requests are sent through a shared {@link BoxClient}. Racers run the stage asynchronously, see {@link #runAsync(Race.Registration)}, thus do not block a thread while waiting for the box service.
+ *
  * @author Eduardo Martins
  */
 public class JAXRSRaceStage implements RaceStage {
 
+    /**
+     * cdi injection of the shared, pooled, pit stop client
+     */
+    @Inject
+    private BoxClient boxClient;
+
     @Override
     public void run(Race.Registration registration) throws Exception {
-        // build the REST service uri from race's environment
-        final Map<String, String> environment = registration.getEnvironment();
-        final String pitStopURI = new StringBuilder("http://")
-            .append(environment.get(EnvironmentProperties.SERVER_NAME))
-            .append(':')
-            .append(environment.get(EnvironmentProperties.SERVER_PORT))
-            .append(environment.get(EnvironmentProperties.ROOT_PATH))
-            .append('/')
-            .append(BoxApplication.PATH)
-            .append("/pitStop")
-            .toString();
-        // create and setup the new standard JAX-RS client (and its web target)
-        final Client client = ClientBuilder.newClient();
-        final WebTarget target = client.target(pitStopURI);
         // get current time
         long now = System.currentTimeMillis();
         // box box box, i.e. send a request to the Box rest service, with the racers name provided as param 'racer'
-        final Response response = target.path("{racer}").resolveTemplate("racer", registration.getRacer().getName()).request().get();
-        if (response.getStatus() != 200) {
-            throw new IllegalStateException("PIT STOP failure trouble " + response.getStatus());
+        final int status = boxClient.pitStop(registration.getRacer().getName(), registration.getEnvironment());
+        pitStopDone(registration, status, now);
+    }
+
+    /**
+     * Runs the stage without blocking the calling thread.
+     * @param registration the racer's race registration
+     * @return a completion stage which completes when the pit stop is done
+     */
+    public CompletionStage<Void> runAsync(final Race.Registration registration) {
+        final long now = System.currentTimeMillis();
+        return boxClient.pitStopAsync(registration.getRacer().getName(), registration.getEnvironment())
+                .thenAccept(status -> pitStopDone(registration, status, now));
+    }
+
+    private void pitStopDone(Race.Registration registration, int status, long startTime) {
+        if (status != 200) {
+            throw new IllegalStateException("PIT STOP failure trouble " + status);
         } else {
             // broadcast a msg indicating the duration of the pit stop operation
-            registration.broadcast("PIT STOP in " + (System.currentTimeMillis() - now) + "ms");
+            registration.broadcast("PIT STOP in " + (System.currentTimeMillis() - startTime) + "ms");
         }
     }
 }
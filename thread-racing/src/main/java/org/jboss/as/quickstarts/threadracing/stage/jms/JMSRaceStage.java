@@ -20,48 +20,67 @@ import org.jboss.as.quickstarts.threadracing.Race;
 import org.jboss.as.quickstarts.threadracing.stage.RaceStage;
 
 import javax.annotation.Resource;
+import javax.inject.Inject;
 import javax.jms.ConnectionFactory;
-import javax.jms.JMSConsumer;
 import javax.jms.JMSContext;
 import javax.jms.Queue;
-import javax.jms.TemporaryQueue;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
- * The JMS race stage is a JMS client which sends a request containing a text message, and waits for a response with same text, using the request/response trough a temporary queue pattern.
+ * The JMS race stage is a JMS client which sends a request containing a text message, and waits for a response with same text, using the request/response pattern.
+ *
+ * Responses are sent to a shared reply queue, consumed by the long lived {@link JMSReplyListener}, and each request is matched with its response through the JMS correlation ID.
  *
  * @author Eduardo Martins
  */
 public class JMSRaceStage implements RaceStage {
 
+    /**
+     * the max time to wait for a response, in seconds
+     */
+    private static final long RESPONSE_TIMEOUT = 30;
+
     /**
      * injection of JMS message listener's queue, through JNDI lookup
      */
     @Resource(lookup = JMSRaceStageMessageListener.REQUEST_QUEUE)
     private Queue requestQueue;
+    /**
+     * injection of the shared reply queue, through JNDI lookup
+     */
+    @Resource(lookup = JMSReplyListener.REPLY_QUEUE)
+    private Queue replyQueue;
     @Resource(lookup = "java:comp/DefaultJMSConnectionFactory")
     private ConnectionFactory cf;
 
+    @Inject
+    private JMSReplyDispatcher replyDispatcher;
+
     @Override
     public void run(Race.Registration registration) throws Exception {
+        final String request = UUID.randomUUID().toString();
+        final String correlationID = UUID.randomUUID().toString();
+        // register the request before sending it, so the response is never missed
+        final CompletableFuture<String> futureResponse = replyDispatcher.register(correlationID);
         try (JMSContext jmsContext = cf.createContext()) {
-            // create response tmp queue
-            final TemporaryQueue responseQueue = jmsContext.createTemporaryQueue();
             // send request
-            final String request = UUID.randomUUID().toString();
             jmsContext.createProducer()
-                    .setJMSReplyTo(responseQueue)
+                    .setJMSReplyTo(replyQueue)
+                    .setJMSCorrelationID(correlationID)
                     .send(requestQueue, request);
-            // receive response
-            try (JMSConsumer consumer = jmsContext.createConsumer(responseQueue)) {
-                String response = consumer.receiveBody(String.class);
-                if (response == null) {
-                    registration.aborted(new IllegalStateException("Message processing timed out"));
-                } else if (!response.equals(request)) {
-                    registration.aborted(new IllegalStateException("Response content does not match the request. Response: " + response + ", request: " + request));
-                }
-            }
+        }
+        // await response
+        final String response;
+        try {
+            response = replyDispatcher.awaitReply(correlationID, futureResponse, RESPONSE_TIMEOUT, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Message processing timed out", e);
+        }
+        if (!response.equals(request)) {
+            throw new IllegalStateException("Response content does not match the request. Response: " + response + ", request: " + request);
         }
     }
 }
-
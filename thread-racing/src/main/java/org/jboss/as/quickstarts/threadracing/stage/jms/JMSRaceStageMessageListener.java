@@ -52,9 +52,11 @@ public class JMSRaceStageMessageListener implements MessageListener {
 
     @Override
     public void onMessage(Message message) {
-        // just echo the msg
+        // just echo the msg, with the request's correlation ID, which the requester uses to match the reply
         try {
-            jmsContext.createProducer().send(message.getJMSReplyTo(), ((TextMessage) message).getText());
+            jmsContext.createProducer()
+                    .setJMSCorrelationID(message.getJMSCorrelationID())
+                    .send(message.getJMSReplyTo(), ((TextMessage) message).getText());
         } catch (JMSException e) {
             e.printStackTrace();
         }
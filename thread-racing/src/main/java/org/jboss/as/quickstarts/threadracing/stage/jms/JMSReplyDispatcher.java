@@ -0,0 +1,83 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing.stage.jms;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * An application scoped CDI bean which dispatches the replies received on the shared reply queue, by {@link JMSReplyListener}, to the pending requests, using the JMS correlation ID.
+ */
+@ApplicationScoped
+public class JMSReplyDispatcher {
+
+    /**
+     * the pending requests, by correlation ID
+     */
+    private final ConcurrentMap<String, CompletableFuture<String>> pendingRequests = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a pending request, the reply with the specified correlation ID will complete the returned future.
+     * @param correlationID
+     * @return
+     */
+    public CompletableFuture<String> register(String correlationID) {
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        if (pendingRequests.putIfAbsent(correlationID, future) != null) {
+            throw new IllegalStateException("duplicate correlation ID " + correlationID);
+        }
+        return future;
+    }
+
+    /**
+     * Awaits the reply to a registered request.
+     * @param correlationID
+     * @param future the future returned when the request was registered
+     * @param timeout
+     * @param unit
+     * @return the reply's text
+     * @throws TimeoutException if the reply was not received in time, in such case the request is unregistered
+     * @throws ExecutionException
+     * @throws InterruptedException
+     */
+    public String awaitReply(String correlationID, CompletableFuture<String> future, long timeout, TimeUnit unit) throws TimeoutException, ExecutionException, InterruptedException {
+        try {
+            return future.get(timeout, unit);
+        } finally {
+            pendingRequests.remove(correlationID, future);
+        }
+    }
+
+    /**
+     * Dispatches a reply to its request.
+     * @param correlationID
+     * @param text
+     * @return false if there is no pending request with the specified correlation ID, e.g. if it timed out
+     */
+    public boolean dispatch(String correlationID, String text) {
+        if (correlationID == null) {
+            return false;
+        }
+        final CompletableFuture<String> future = pendingRequests.remove(correlationID);
+        return future != null && future.complete(text);
+    }
+}
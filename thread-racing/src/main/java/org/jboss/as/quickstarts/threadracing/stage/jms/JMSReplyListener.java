@@ -0,0 +1,62 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing.stage.jms;
+
+import javax.ejb.ActivationConfigProperty;
+import javax.ejb.MessageDriven;
+import javax.inject.Inject;
+import javax.jms.JMSDestinationDefinition;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.TextMessage;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The long lived consumer of the JMS race stage's shared reply queue, which hands each reply to the {@link JMSReplyDispatcher}.
+ */
+@JMSDestinationDefinition(name = JMSReplyListener.REPLY_QUEUE,
+    interfaceName = "javax.jms.Queue",
+    destinationName = "JMSThreadRacingReplyQueue")
+@MessageDriven(activationConfig = {
+        @ActivationConfigProperty(propertyName = "destinationLookup",
+        propertyValue = JMSReplyListener.REPLY_QUEUE),
+        @ActivationConfigProperty(propertyName = "destinationType",
+        propertyValue = "javax.jms.Queue"),
+        }
+)
+public class JMSReplyListener implements MessageListener {
+
+    public static final String REPLY_QUEUE = "java:global/threadRacing/stages/jms/replyQueue";
+
+    private static final Logger LOGGER = Logger.getLogger(JMSReplyListener.class.getName());
+
+    @Inject
+    private JMSReplyDispatcher replyDispatcher;
+
+    @Override
+    public void onMessage(Message message) {
+        try {
+            if (!replyDispatcher.dispatch(message.getJMSCorrelationID(), ((TextMessage) message).getText())) {
+                LOGGER.log(Level.WARNING, "Discarding JMS race stage reply without pending request, correlation ID {0}", message.getJMSCorrelationID());
+            }
+        } catch (JMSException e) {
+            LOGGER.log(Level.SEVERE, "Failed to dispatch JMS race stage reply", e);
+        }
+    }
+}
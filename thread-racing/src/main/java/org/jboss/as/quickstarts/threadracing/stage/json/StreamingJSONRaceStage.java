@@ -0,0 +1,159 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing.stage.json;
+
+import org.jboss.as.quickstarts.threadracing.Race;
+import org.jboss.as.quickstarts.threadracing.stage.RaceStage;
+
+import javax.json.spi.JsonProvider;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParserFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A variant of the {@link JSONRaceStage}, which does the same JSON round trip through the streaming API, writing with a {@link javax.json.stream.JsonGenerator} and reading with a {@link javax.json.stream.JsonParser}, thus no object tree is built.
+ *
+ * The JSON provider lookup, and the creation of generator and parser factories, are expensive, thus done only once. The byte buffers are also reused, through a small pool shared by all racers, since racers run on short lived threads.
+ */
+public class StreamingJSONRaceStage implements RaceStage {
+
+    private static final JsonProvider PROVIDER = JsonProvider.provider();
+
+    private static final JsonGeneratorFactory GENERATOR_FACTORY = PROVIDER.createGeneratorFactory(Collections.<String, Object>emptyMap());
+
+    private static final JsonParserFactory PARSER_FACTORY = PROVIDER.createParserFactory(Collections.<String, Object>emptyMap());
+
+    /**
+     * the key names and values expected when parsing, in document order
+     */
+    private static final String[] EXPECTED_TOKENS = {
+            "firstName", "John",
+            "lastName", "Smith",
+            "age", "25",
+            "address",
+            "streetAddress", "21 2nd Street",
+            "city", "New York",
+            "state", "NY",
+            "postalCode", "10021",
+            "phoneNumber",
+            "type", "home",
+            "number", "212 555-1234",
+            "type", "fax",
+            "number", "646 555-4567"
+    };
+
+    /**
+     * the max number of idle byte buffers kept for reuse
+     */
+    private static final int MAX_POOLED_BUFFERS = 64;
+
+    /**
+     * the idle byte buffers, if the pool is empty a new buffer is created, and if full a released buffer is discarded
+     */
+    private static final BlockingQueue<ReusableByteArrayOutputStream> BUFFER_POOL = new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+
+    @Override
+    public void run(Race.Registration registration) throws Exception {
+        ReusableByteArrayOutputStream buffer = BUFFER_POOL.poll();
+        if (buffer == null) {
+            buffer = new ReusableByteArrayOutputStream();
+        }
+        try {
+            roundTrip(buffer);
+        } finally {
+            buffer.reset();
+            BUFFER_POOL.offer(buffer);
+        }
+    }
+
+    /**
+     * Writes and parses the JSON document, using the specified buffer.
+     * @param buffer
+     */
+    private void roundTrip(ReusableByteArrayOutputStream buffer) {
+        // 1. write an object with nested structure
+        try (JsonGenerator generator = GENERATOR_FACTORY.createGenerator(buffer, StandardCharsets.UTF_8)) {
+            generator.writeStartObject()
+                // simple pairs
+                .write("firstName", "John")
+                .write("lastName", "Smith")
+                .write("age", 25)
+                // nested object
+                .writeStartObject("address")
+                    .write("streetAddress", "21 2nd Street")
+                    .write("city", "New York")
+                    .write("state", "NY")
+                    .write("postalCode", "10021")
+                .writeEnd()
+                // nested object array
+                .writeStartArray("phoneNumber")
+                    .writeStartObject()
+                        .write("type", "home")
+                        .write("number", "212 555-1234")
+                    .writeEnd()
+                    .writeStartObject()
+                        .write("type", "fax")
+                        .write("number", "646 555-4567")
+                    .writeEnd()
+                .writeEnd()
+            .writeEnd();
+        }
+        // 2. parse the written bytes, without copying them, and check each key and value
+        int tokens = 0;
+        try (JsonParser parser = PARSER_FACTORY.createParser(buffer.toInputStream(), StandardCharsets.UTF_8)) {
+            while (parser.hasNext()) {
+                switch (parser.next()) {
+                    case KEY_NAME:
+                    case VALUE_STRING:
+                    case VALUE_NUMBER:
+                        if (tokens >= EXPECTED_TOKENS.length || !EXPECTED_TOKENS[tokens].equals(parser.getString())) {
+                            throw new IllegalStateException("json parsed does not equal the one written");
+                        }
+                        tokens++;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        // 3. sanity check :)
+        if (tokens != EXPECTED_TOKENS.length) {
+            throw new IllegalStateException("json parsed does not equal the one written");
+        }
+    }
+
+    /**
+     * A byte array output stream which may be read without copying its buffer.
+     */
+    private static class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+
+        private ReusableByteArrayOutputStream() {
+            super(512);
+        }
+
+        private ByteArrayInputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
+}
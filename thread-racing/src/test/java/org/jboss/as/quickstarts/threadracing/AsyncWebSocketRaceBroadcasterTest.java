@@ -0,0 +1,208 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstarts.threadracing;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.websocket.CloseReason;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Tests the {@link AsyncWebSocketRaceBroadcaster} with many simulated sessions, which never complete a send unless told to, i.e. slow consumers.
+ *
+ * The executor only runs its tasks when the test says so, thus every broadcast call returning shows the race thread never waits for the sessions.
+ */
+public class AsyncWebSocketRaceBroadcasterTest {
+
+    private static final int SESSIONS = 1000;
+
+    private static final int QUEUE_CAPACITY = 16;
+
+    private final ManualExecutor executor = new ManualExecutor();
+
+    private final BroadcastMetrics metrics = new BroadcastMetrics();
+
+    @Test
+    public void testSlowConsumersDropMessages() {
+        final List<FakeSession> sessions = newSessions(AsyncWebSocketRaceBroadcaster.SlowConsumerPolicy.DROP);
+        // each session gets a frame in flight, which is never acknowledged by the slow consumer
+        broadcast(sessions, 1);
+        executor.runAll();
+        // then the race continues, the send queues get full, and the messages that do not fit are dropped
+        broadcast(sessions, 100);
+        Assert.assertTrue(executor.tasks.isEmpty());
+        Assert.assertEquals(SESSIONS * (100 - QUEUE_CAPACITY), metrics.getDroppedMessages());
+        Assert.assertEquals(SESSIONS * QUEUE_CAPACITY, metrics.getQueuedMessages());
+        Assert.assertEquals(QUEUE_CAPACITY, metrics.getMaxQueueDepth());
+        for (FakeSession session : sessions) {
+            Assert.assertEquals(1, session.frames.size());
+            Assert.assertNull(session.closeReason);
+        }
+        // once the consumer catches up, the queued progress messages are coalesced in a single frame
+        final FakeSession session = sessions.get(0);
+        session.completeSend();
+        executor.runAll();
+        Assert.assertEquals(2, session.frames.size());
+        Assert.assertEquals(QUEUE_CAPACITY, session.frames.get(1).split("<br/>").length);
+        Assert.assertEquals(1, metrics.getSentFrames());
+        Assert.assertEquals(1, metrics.getSentMessages());
+        Assert.assertEquals(0, metrics.getDisconnectedSessions());
+    }
+
+    @Test
+    public void testSlowConsumersAreDisconnected() {
+        final List<FakeSession> sessions = newSessions(AsyncWebSocketRaceBroadcaster.SlowConsumerPolicy.DISCONNECT);
+        broadcast(sessions, 1);
+        executor.runAll();
+        // the first message that does not fit in the send queue disconnects the session, further messages are ignored
+        broadcast(sessions, 100);
+        Assert.assertTrue(executor.tasks.isEmpty());
+        Assert.assertEquals(SESSIONS, metrics.getDisconnectedSessions());
+        Assert.assertEquals(0, metrics.getDroppedMessages());
+        // the queued messages are discarded
+        Assert.assertEquals(0, metrics.getQueuedMessages());
+        for (FakeSession session : sessions) {
+            Assert.assertEquals(1, session.frames.size());
+            Assert.assertEquals(CloseReason.CloseCodes.TRY_AGAIN_LATER, session.closeReason.getCloseCode());
+        }
+    }
+
+    @Test
+    public void testFastConsumersGetAllMessages() {
+        final List<FakeSession> sessions = newSessions(AsyncWebSocketRaceBroadcaster.SlowConsumerPolicy.DISCONNECT);
+        for (FakeSession session : sessions) {
+            session.acknowledgeSends = true;
+        }
+        for (int i = 0; i < 100; i++) {
+            broadcast(sessions, 1);
+            executor.runAll();
+        }
+        Assert.assertEquals(SESSIONS * 100, metrics.getSentMessages());
+        Assert.assertEquals(0, metrics.getQueuedMessages());
+        Assert.assertEquals(0, metrics.getDroppedMessages());
+        Assert.assertEquals(0, metrics.getDisconnectedSessions());
+        for (FakeSession session : sessions) {
+            Assert.assertNull(session.closeReason);
+        }
+    }
+
+    private List<FakeSession> newSessions(AsyncWebSocketRaceBroadcaster.SlowConsumerPolicy slowConsumerPolicy) {
+        final List<FakeSession> sessions = new ArrayList<>(SESSIONS);
+        for (int i = 0; i < SESSIONS; i++) {
+            final FakeSession session = new FakeSession();
+            session.broadcaster = new AsyncWebSocketRaceBroadcaster(session.proxy, executor.proxy, metrics, QUEUE_CAPACITY, slowConsumerPolicy);
+            sessions.add(session);
+        }
+        return sessions;
+    }
+
+    /**
+     * Broadcasts race progress messages to all sessions, as the race thread does.
+     * @param sessions
+     * @param messages
+     */
+    private static void broadcast(List<FakeSession> sessions, int messages) {
+        for (int i = 0; i < messages; i++) {
+            for (FakeSession session : sessions) {
+                session.broadcaster.raceProgress("Racer " + i + " completed a stage");
+            }
+        }
+    }
+
+    /**
+     * An executor which queues the tasks, and only runs them when the test says so. Delays are ignored.
+     */
+    private static class ManualExecutor {
+
+        private final Queue<Runnable> tasks = new LinkedList<>();
+
+        private final ScheduledExecutorService proxy = (ScheduledExecutorService) Proxy.newProxyInstance(ScheduledExecutorService.class.getClassLoader(), new Class<?>[]{ScheduledExecutorService.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "execute":
+                case "schedule":
+                    tasks.add((Runnable) args[0]);
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    /**
+     * A web socket session, which records the frames sent, and only completes sends if acknowledged.
+     */
+    private static class FakeSession {
+
+        private final List<String> frames = new ArrayList<>();
+
+        private SendHandler pendingSend;
+
+        private boolean acknowledgeSends;
+
+        private CloseReason closeReason;
+
+        private AsyncWebSocketRaceBroadcaster broadcaster;
+
+        private final RemoteEndpoint.Async remote = (RemoteEndpoint.Async) Proxy.newProxyInstance(RemoteEndpoint.Async.class.getClassLoader(), new Class<?>[]{RemoteEndpoint.Async.class}, (proxy, method, args) -> {
+            if (method.getName().equals("sendText") && args.length == 2) {
+                Assert.assertNull("a frame was sent before the previous one completed", pendingSend);
+                frames.add((String) args[0]);
+                pendingSend = (SendHandler) args[1];
+                if (acknowledgeSends) {
+                    completeSend();
+                }
+                return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+
+        private final Session proxy = (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getAsyncRemote":
+                    return remote;
+                case "close":
+                    closeReason = args == null ? new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, null) : (CloseReason) args[0];
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+
+        void completeSend() {
+            final SendHandler sendHandler = pendingSend;
+            pendingSend = null;
+            sendHandler.onResult(new SendResult());
+        }
+    }
+}
@@ -17,10 +17,7 @@
 package org.jboss.as.quickstart.xml;
 
 import java.io.InputStream;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 
 import javax.enterprise.context.RequestScoped;
@@ -52,7 +49,6 @@ public class DOMXMLParser extends XMLParser {
     private Errors errorHolder;
 
     private DocumentBuilder builder;
-    private static final SimpleDateFormat DATE_FORMATTER = new SimpleDateFormat("yyyy-MM-dd");
 
     DOMXMLParser() throws Exception {
         DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
@@ -153,14 +149,7 @@ public class DOMXMLParser extends XMLParser {
                 Element childElement = (Element) child;
 
                 String textVal = getTextValue(childElement);
-                Date d;
-                try {
-
-                    d = DATE_FORMATTER.parse(textVal);
-                    b.setPublishDate(d);
-                } catch (ParseException e) {
-                    throw new RuntimeException(e);
-                }
+                b.setPublishDate(parseDate(textVal));
 
             } else if (childName.equals("description")) {
                 Element childElement = (Element) child;
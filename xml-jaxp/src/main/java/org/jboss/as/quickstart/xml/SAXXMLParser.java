@@ -17,10 +17,7 @@
 package org.jboss.as.quickstart.xml;
 
 import java.io.InputStream;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 
 import javax.enterprise.context.RequestScoped;
@@ -44,8 +41,6 @@ import org.xml.sax.helpers.DefaultHandler;
 @Alternative
 public class SAXXMLParser extends XMLParser {
 
-    private static final SimpleDateFormat DATE_FORMATTER = new SimpleDateFormat("yyyy-MM-dd");
-
     // Inject instance of error holder
     @Inject
     private Errors errorHolder;
@@ -72,7 +67,8 @@ public class SAXXMLParser extends XMLParser {
         private List<Book> catalog;
         private Book book;
 
-        private String currentElementValue;
+        // text may be reported in several chunks, thus it is accumulated
+        private final StringBuilder currentElementValue = new StringBuilder();
 
         @Override
         public void startDocument() throws SAXException {
@@ -87,45 +83,41 @@ public class SAXXMLParser extends XMLParser {
             if (qName.equals("book")) {
                 this.book = new Book();
             }
+            this.currentElementValue.setLength(0);
         }
 
         @Override
         public void endElement(String uri, String localName, String qName) throws SAXException {
+            String value = this.currentElementValue.toString();
+            this.currentElementValue.setLength(0);
             if (qName.equals("book")) {
                 this.catalog.add(this.book);
                 this.book = null;
             } else if (qName.equals("author")) {
 
-                this.book.setAuthor(this.currentElementValue);
+                this.book.setAuthor(value);
             } else if (qName.equals("title")) {
 
-                this.book.setTitle(this.currentElementValue);
+                this.book.setTitle(value);
             } else if (qName.equals("genre")) {
 
-                this.book.setGenre(this.currentElementValue);
+                this.book.setGenre(value);
             } else if (qName.equals("price")) {
 
-                this.book.setPrice(Float.parseFloat(this.currentElementValue));
+                this.book.setPrice(Float.parseFloat(value.trim()));
             } else if (qName.equals("publish_date")) {
 
-                Date d;
-                try {
-
-                    d = DATE_FORMATTER.parse(this.currentElementValue);
-                    this.book.setPublishDate(d);
-                } catch (ParseException e) {
-                    throw new RuntimeException(e);
-                }
+                this.book.setPublishDate(parseDate(value));
 
             } else if (qName.equals("description")) {
 
-                this.book.setDescription(this.currentElementValue);
+                this.book.setDescription(value);
             }
         }
 
         @Override
         public void characters(char[] ch, int start, int length) throws SAXException {
-            this.currentElementValue = new String(ch, start, length);
+            this.currentElementValue.append(ch, start, length);
         }
 
         @Override
@@ -0,0 +1,229 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstart.xml;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.inject.Alternative;
+import javax.inject.Inject;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.validation.ValidatorHandler;
+
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Implementation of parser based on JAXP StAX. The document is pulled event by event, and each book is handed to the consumer
+ * as soon as its end element is read, thus the catalog never has to be fully kept in memory.
+ *
+ * Each event pulled is also pushed to a schema {@link ValidatorHandler}, thus the document is validated while parsed, in a
+ * single streaming pass, and the uploaded document is never copied into memory.
+ */
+@RequestScoped
+@Alternative
+public class StAXXMLParser extends XMLParser {
+
+    private static final XMLInputFactory FACTORY;
+
+    static {
+        FACTORY = XMLInputFactory.newInstance();
+        FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        FACTORY.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    }
+
+    // Inject instance of error holder
+    @Inject
+    private Errors errorHolder;
+
+    @Override
+    public boolean parse(InputStream is, Consumer<Book> consumer) throws Exception {
+        // no need to buffer the document for a separate validation, it is validated while parsed
+        try (InputStream in = is) {
+            parseInternal(in, consumer);
+            return true;
+        } catch (SAXParseException e) {
+            // already reported by the error handler
+            return false;
+        } catch (XMLStreamException e) {
+            // the document is not well formed
+            errorHolder.addErrorMessage("fatal error", e);
+            return false;
+        }
+    }
+
+    @Override
+    protected List<Book> parseInternal(InputStream is) throws Exception {
+        List<Book> catalog = new ArrayList<>();
+        parseInternal(is, catalog::add);
+        return catalog;
+    }
+
+    @Override
+    protected void parseInternal(InputStream is, Consumer<Book> consumer) throws Exception {
+        System.out.println("Parsing the document using the StAXXMLParser!");
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(is);
+        try {
+            ValidatorHandler validator = getCatalogSchema().newValidatorHandler();
+            validator.setErrorHandler(new ValidationErrorHandler());
+            validator.setDocumentLocator(new StreamLocator(reader));
+            validator.startDocument();
+            Book book = null;
+            // text may be reported in several events, e.g. around entity references, thus it is accumulated
+            StringBuilder currentElementValue = new StringBuilder();
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    startElement(reader, validator);
+                    if (reader.getLocalName().equals("book")) {
+                        book = new Book();
+                    }
+                    currentElementValue.setLength(0);
+                } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                        || event == XMLStreamConstants.SPACE) {
+                    validator.characters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    currentElementValue.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    endElement(reader, validator);
+                    String name = reader.getLocalName();
+                    if (name.equals("book")) {
+                        if (book != null) {
+                            consumer.accept(book);
+                        }
+                        book = null;
+                    } else if (book != null) {
+                        String value = currentElementValue.toString();
+                        if (name.equals("author")) {
+                            book.setAuthor(value);
+                        } else if (name.equals("title")) {
+                            book.setTitle(value);
+                        } else if (name.equals("genre")) {
+                            book.setGenre(value);
+                        } else if (name.equals("price")) {
+                            book.setPrice(Float.parseFloat(value.trim()));
+                        } else if (name.equals("publish_date")) {
+                            book.setPublishDate(parseDate(value));
+                        } else if (name.equals("description")) {
+                            book.setDescription(value);
+                        }
+                    }
+                    currentElementValue.setLength(0);
+                }
+            }
+            validator.endDocument();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void startElement(XMLStreamReader reader, ValidatorHandler validator) throws SAXException {
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            validator.startPrefixMapping(nonNull(reader.getNamespacePrefix(i)), nonNull(reader.getNamespaceURI(i)));
+        }
+        AttributesImpl attributes = new AttributesImpl();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            attributes.addAttribute(nonNull(reader.getAttributeNamespace(i)), reader.getAttributeLocalName(i),
+                    qName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)), reader.getAttributeType(i),
+                    reader.getAttributeValue(i));
+        }
+        validator.startElement(nonNull(reader.getNamespaceURI()), reader.getLocalName(),
+                qName(reader.getPrefix(), reader.getLocalName()), attributes);
+    }
+
+    private static void endElement(XMLStreamReader reader, ValidatorHandler validator) throws SAXException {
+        validator.endElement(nonNull(reader.getNamespaceURI()), reader.getLocalName(),
+                qName(reader.getPrefix(), reader.getLocalName()));
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            validator.endPrefixMapping(nonNull(reader.getNamespacePrefix(i)));
+        }
+    }
+
+    private static String qName(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+    private static String nonNull(String value) {
+        return value == null ? "" : value;
+    }
+
+    /*
+     * Reports validation problems, validation errors stop the parsing, as in the validation done before parsing by the other
+     * parsers.
+     */
+    private class ValidationErrorHandler implements ErrorHandler {
+
+        @Override
+        public void warning(SAXParseException e) throws SAXException {
+            errorHolder.addErrorMessage("warning", e);
+        }
+
+        @Override
+        public void error(SAXParseException e) throws SAXException {
+            errorHolder.addErrorMessage("Validation Error", e);
+            throw e;
+        }
+
+        @Override
+        public void fatalError(SAXParseException e) throws SAXException {
+            errorHolder.addErrorMessage("fatal error", e);
+            throw e;
+        }
+    }
+
+    /*
+     * Provides the location of the current StAX event to the validator, for its error messages.
+     */
+    private static class StreamLocator implements Locator {
+
+        private final XMLStreamReader reader;
+
+        StreamLocator(XMLStreamReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public String getPublicId() {
+            return reader.getLocation().getPublicId();
+        }
+
+        @Override
+        public String getSystemId() {
+            return reader.getLocation().getSystemId();
+        }
+
+        @Override
+        public int getLineNumber() {
+            return reader.getLocation().getLineNumber();
+        }
+
+        @Override
+        public int getColumnNumber() {
+            return reader.getLocation().getColumnNumber();
+        }
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.as.quickstart.xml;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.inject.Alternative;
+import javax.inject.Inject;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Implementation of parser based on JAXP SAX, which validates the document against the schema while parsing it, in a single
+ * streaming pass, thus the uploaded document is never copied into memory.
+ *
+ * The compiled schema is shared, and the SAX parsers, which are expensive to create but not thread safe, are pooled. Books are
+ * handed to the consumer as soon as parsed.
+ */
+@RequestScoped
+@Alternative
+public class StreamingXMLParser extends XMLParser {
+
+    private static final SAXParserFactory FACTORY;
+
+    static {
+        FACTORY = SAXParserFactory.newInstance();
+        // setValidating refers to DTD validation only, schema validation is enabled by setting the schema
+        FACTORY.setValidating(false);
+        FACTORY.setNamespaceAware(true);
+        FACTORY.setSchema(getCatalogSchema());
+    }
+
+    private static final Queue<SAXParser> PARSER_POOL = new ConcurrentLinkedQueue<>();
+
+    // Inject instance of error holder
+    @Inject
+    private Errors errorHolder;
+
+    @Override
+    public boolean parse(InputStream is, Consumer<Book> consumer) throws Exception {
+        // no need to buffer the document for a separate validation, it is validated while parsed
+        try (InputStream in = is) {
+            parseInternal(in, consumer);
+            return true;
+        } catch (SAXParseException e) {
+            // already reported by the handler
+            return false;
+        }
+    }
+
+    @Override
+    protected List<Book> parseInternal(InputStream is) throws Exception {
+        List<Book> catalog = new ArrayList<>();
+        parseInternal(is, catalog::add);
+        return catalog;
+    }
+
+    @Override
+    protected void parseInternal(InputStream is, Consumer<Book> consumer) throws Exception {
+        System.out.println("Parsing the document using the StreamingXMLParser!");
+        SAXParser parser = borrowParser();
+        try {
+            parser.parse(is, new SAXHandler(consumer));
+        } finally {
+            returnParser(parser);
+        }
+    }
+
+    private static SAXParser borrowParser() throws Exception {
+        SAXParser parser = PARSER_POOL.poll();
+        if (parser == null) {
+            // factories are not thread safe
+            synchronized (FACTORY) {
+                parser = FACTORY.newSAXParser();
+            }
+        }
+        return parser;
+    }
+
+    private static void returnParser(SAXParser parser) {
+        parser.reset();
+        PARSER_POOL.offer(parser);
+    }
+
+    private class SAXHandler extends DefaultHandler {
+
+        private final Consumer<Book> consumer;
+        private Book book;
+
+        // text may be reported in several chunks, thus it is accumulated
+        private final StringBuilder currentElementValue = new StringBuilder();
+
+        SAXHandler(Consumer<Book> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            if (localName.equals("book")) {
+                this.book = new Book();
+            }
+            this.currentElementValue.setLength(0);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            if (localName.equals("book")) {
+                this.consumer.accept(this.book);
+                this.book = null;
+            } else if (this.book != null) {
+                String value = this.currentElementValue.toString();
+                if (localName.equals("author")) {
+                    this.book.setAuthor(value);
+                } else if (localName.equals("title")) {
+                    this.book.setTitle(value);
+                } else if (localName.equals("genre")) {
+                    this.book.setGenre(value);
+                } else if (localName.equals("price")) {
+                    this.book.setPrice(Float.parseFloat(value.trim()));
+                } else if (localName.equals("publish_date")) {
+                    this.book.setPublishDate(parseDate(value));
+                } else if (localName.equals("description")) {
+                    this.book.setDescription(value);
+                }
+            }
+            this.currentElementValue.setLength(0);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            this.currentElementValue.append(ch, start, length);
+        }
+
+        @Override
+        public void warning(SAXParseException e) throws SAXException {
+            errorHolder.addErrorMessage("warning", e);
+        }
+
+        @Override
+        public void error(SAXParseException e) throws SAXException {
+            // validation errors stop the parsing, as in the validation done before parsing by the other parsers
+            errorHolder.addErrorMessage("Validation Error", e);
+            throw e;
+        }
+
+        @Override
+        public void fatalError(SAXParseException e) throws SAXException {
+            errorHolder.addErrorMessage("fatal error", e);
+            throw e;
+        }
+
+    }
+}
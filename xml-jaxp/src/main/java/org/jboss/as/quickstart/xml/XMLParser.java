@@ -16,17 +16,26 @@
  */
 package org.jboss.as.quickstart.xml;
 
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
-import java.io.CharArrayReader;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.URL;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.inject.Inject;
+import javax.xml.XMLConstants;
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
 
@@ -43,32 +52,56 @@ public abstract class XMLParser {
     private Errors errorHolder;
 
     public List<Book> parse(InputStream is) throws Exception {
+        List<Book> catalog = new ArrayList<>();
+        return parse(is, catalog::add) ? catalog : null;
+    }
+
+    /**
+     * Parses the document, handing each book to the specified consumer, as soon as the parser implementation provides it.
+     *
+     * @param is
+     * @param consumer
+     * @return false if the document is not valid, true otherwise
+     * @throws Exception
+     */
+    public boolean parse(InputStream is, Consumer<Book> consumer) throws Exception {
         /*
-         * Validate against schema before it triggers implementation.
+         * Validate against schema before it triggers implementation. The document is read once, and its bytes are used both to
+         * validate and to parse it, see StreamingXMLParser for an implementation which validates while parsing.
          */
-        StringBuilder xmlFile = new StringBuilder();
-        try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(is))) {
-            String line = null;
-            while ((line = bufferedReader.readLine()) != null) {
-                xmlFile.append(line);
+        ByteArrayOutputStream xmlFile = new ByteArrayOutputStream();
+        try (InputStream in = is) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                xmlFile.write(buffer, 0, read);
             }
         }
-        String xml = xmlFile.toString();
+        byte[] xml = xmlFile.toByteArray();
         // validate against schema.
         try {
-            URL schema = Resources.getResource("/catalog.xsd");
-            Validator validator = SchemaFactory.newInstance("http://www.w3.org/2001/XMLSchema").newSchema(schema)
-                .newValidator();
-            Source source = new StreamSource(new CharArrayReader(xml.toCharArray()));
+            Validator validator = getCatalogSchema().newValidator();
+            Source source = new StreamSource(new ByteArrayInputStream(xml));
             validator.validate(source);
         } catch (Exception e) {
             this.errorHolder.addErrorMessage("Validation Error", e);
-            return null;
+            return false;
         }
         // parse file into catalog
-        ByteArrayInputStream bais = new ByteArrayInputStream(xml.getBytes());
+        ByteArrayInputStream bais = new ByteArrayInputStream(xml);
         // ask extending class to parse
-        return parseInternal(bais);
+        parseInternal(bais, consumer);
+        return true;
+    }
+
+    /**
+     * Retrieves the catalog schema. Compiling the schema is expensive, thus it is done only once, and {@link Schema} instances
+     * are thread safe, thus shared by all parsers.
+     *
+     * @return
+     */
+    protected static Schema getCatalogSchema() {
+        return CatalogSchemaHolder.SCHEMA;
     }
 
     /**
@@ -79,4 +112,46 @@ public abstract class XMLParser {
      */
     protected abstract List<Book> parseInternal(InputStream is) throws Exception;
 
+    /**
+     * Parses the document, handing each book to the specified consumer. Implementations able to provide books while parsing
+     * should override this method, the default implementation parses the whole catalog first.
+     *
+     * @param is
+     * @param consumer
+     * @throws Exception
+     */
+    protected void parseInternal(InputStream is, Consumer<Book> consumer) throws Exception {
+        parseInternal(is).forEach(consumer);
+    }
+
+    /**
+     * Parses a schema date, such as 2000-10-01, 2000-10-01Z or 2000-10-01+02:00, at the start of the day in its time zone, or in
+     * the default time zone if it has none.
+     *
+     * @param text
+     * @return
+     */
+    protected static Date parseDate(String text) {
+        TemporalAccessor date = DateTimeFormatter.ISO_DATE.parse(text.trim());
+        ZoneId zone = date.isSupported(ChronoField.OFFSET_SECONDS) ? ZoneOffset.from(date) : ZoneId.systemDefault();
+        return Date.from(LocalDate.from(date).atStartOfDay(zone).toInstant());
+    }
+
+    /*
+     * Lazy holder of the compiled catalog schema.
+     */
+    private static class CatalogSchemaHolder {
+
+        private static final Schema SCHEMA;
+
+        static {
+            try {
+                URL schema = Resources.getResource("/catalog.xsd");
+                SCHEMA = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(schema);
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to compile the catalog schema", e);
+            }
+        }
+    }
+
 }
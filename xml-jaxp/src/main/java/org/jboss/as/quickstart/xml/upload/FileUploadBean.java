@@ -16,10 +16,17 @@
  */
 package org.jboss.as.quickstart.xml.upload;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.List;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.SessionScoped;
 import javax.enterprise.inject.Produces;
 import javax.inject.Inject;
@@ -37,9 +44,10 @@ import org.jboss.as.quickstart.xml.XMLParser;
  */
 /*
  * Annotated as: - SessionScope bean to tie its lifecycle to session. This is required to make it shared between UploadServlet
- * invocation and JSF actions.
+ * invocation and JSF actions. - Named bean, to make paging actions available to JSF.
  */
 @SessionScoped
+@Named
 public class FileUploadBean implements Serializable {
 
     /**
@@ -47,9 +55,20 @@ public class FileUploadBean implements Serializable {
      */
     private static final long serialVersionUID = -4542914921835861304L;
 
-    // data, catalog which is displayed in h:dataTable
+    // max number of books displayed at once
+    public static final int PAGE_SIZE = 50;
+
+    // data, the catalog page which is displayed in h:dataTable
     private List<Book> catalog;
 
+    // the uploaded file, parsed again when changing page, so that only a page of the catalog is kept in memory by the parsers
+    // which validate while parsing, StAXXMLParser and StreamingXMLParser, the others read the whole file to validate it
+    private File catalogFile;
+
+    private int page;
+
+    private int totalBooks;
+
     @Inject
     private Errors errors;
 
@@ -69,6 +88,30 @@ public class FileUploadBean implements Serializable {
         return catalog;
     }
 
+    public int getPage() {
+        return page;
+    }
+
+    public int getTotalBooks() {
+        return totalBooks;
+    }
+
+    public int getFirstBook() {
+        return page * PAGE_SIZE + 1;
+    }
+
+    public int getLastBook() {
+        return Math.min((page + 1) * PAGE_SIZE, totalBooks);
+    }
+
+    public boolean isPreviousPage() {
+        return page > 0;
+    }
+
+    public boolean isNextPage() {
+        return getLastBook() < totalBooks;
+    }
+
     /**
      * Action method invoked from UploadServlet once it parses request with 'multipart/form-data' form data and fetches uploaded
      * file.
@@ -77,10 +120,85 @@ public class FileUploadBean implements Serializable {
         try {
             // Trigger parser and clear errors
             this.errors.getErrorMessages().clear();
-            this.catalog = xmlParser.parse(is);
+            deleteCatalogFile();
+            this.catalog = null;
+            this.totalBooks = 0;
+            this.catalogFile = File.createTempFile("catalog", ".xml");
+            try (InputStream in = is) {
+                Files.copy(in, this.catalogFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            parsePage(0);
         } catch (Exception e) {
             this.errors.addErrorMessage("warning", e);
             return;
         }
     }
+
+    /**
+     * Action method to display the previous catalog page.
+     */
+    public void previousPage() {
+        if (isPreviousPage()) {
+            changePage(page - 1);
+        }
+    }
+
+    /**
+     * Action method to display the next catalog page.
+     */
+    public void nextPage() {
+        if (isNextPage()) {
+            changePage(page + 1);
+        }
+    }
+
+    private void changePage(int page) {
+        try {
+            this.errors.getErrorMessages().clear();
+            parsePage(page);
+        } catch (Exception e) {
+            this.errors.addErrorMessage("warning", e);
+        }
+    }
+
+    /*
+     * Parses the uploaded file, keeping only the books in the specified page, and counting all of them.
+     */
+    private void parsePage(int page) throws Exception {
+        final int first = page * PAGE_SIZE;
+        final List<Book> books = new ArrayList<>(PAGE_SIZE);
+        final int[] count = { 0 };
+        boolean valid;
+        try (InputStream is = new FileInputStream(this.catalogFile)) {
+            valid = xmlParser.parse(is, book -> {
+                int index = count[0]++;
+                if (index >= first && index < first + PAGE_SIZE) {
+                    books.add(book);
+                }
+            });
+        }
+        if (valid) {
+            this.catalog = books;
+            this.page = page;
+            this.totalBooks = count[0];
+        } else {
+            this.catalog = null;
+        }
+    }
+
+    private void deleteCatalogFile() throws IOException {
+        if (this.catalogFile != null) {
+            Files.deleteIfExists(this.catalogFile.toPath());
+            this.catalogFile = null;
+        }
+    }
+
+    @PreDestroy
+    void destroy() {
+        try {
+            deleteCatalogFile();
+        } catch (IOException e) {
+            // the file is in the temporary directory anyway
+        }
+    }
 }
@@ -42,8 +42,8 @@ import javax.servlet.http.Part;
 // Mark this class as servlet and indicates that requests to
 // '/upload' URL in application be handled by this servlet.
 @WebServlet(urlPatterns = { "/upload" })
-// configure Servlet 3.0 multipart. Limit file size to 1MB.
-@MultipartConfig(maxFileSize = 1048576L)
+// configure Servlet 3.0 multipart. Files bigger than 1MB are written to disk instead of kept in memory, and limited to 256MB.
+@MultipartConfig(fileSizeThreshold = 1048576, maxFileSize = 268435456L)
 public class FileUploadServlet extends HttpServlet {
 
     /**